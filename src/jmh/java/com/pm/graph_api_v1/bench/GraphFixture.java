@@ -0,0 +1,103 @@
+package com.pm.graph_api_v1.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.graph_api_v1.concurrency.DbConcurrencyLimiter;
+import com.pm.graph_api_v1.config.ConcurrencyProperties;
+import com.pm.graph_api_v1.config.DataVersion;
+import com.pm.graph_api_v1.config.DuckDbPoolProperties;
+import com.pm.graph_api_v1.config.NodeCacheProperties;
+import com.pm.graph_api_v1.config.SlowQueryProperties;
+import com.pm.graph_api_v1.config.TopologyProperties;
+import com.pm.graph_api_v1.metrics.GraphMetrics;
+import com.pm.graph_api_v1.metrics.SlowQueryLog;
+import com.pm.graph_api_v1.repository.CachingGraphRepository;
+import com.pm.graph_api_v1.repository.DuckDbGraphRepositoryJdbc;
+import com.pm.graph_api_v1.repository.MeteredGraphRepository;
+import com.pm.graph_api_v1.service.GraphExploreService;
+import com.pm.graph_api_v1.service.OneHopCursorCodec;
+import com.pm.graph_api_v1.topology.GraphTopologyEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Opens (generating on first use) {@code target/jmh-graphs/graph-<edges>-v<schema>.duckdb} and wires the
+ * repository and service the same way the application context does, without Spring Boot.
+ */
+final class GraphFixture implements AutoCloseable {
+
+    private final SingleConnectionDataSource dataSource;
+    final long nodeCount;
+    final DuckDbGraphRepositoryJdbc repository;
+    final GraphTopologyEngine topologyEngine;
+    final GraphExploreService service;
+
+    private GraphFixture(SingleConnectionDataSource dataSource, long nodeCount, boolean topology) {
+        this.dataSource = dataSource;
+        this.nodeCount = nodeCount;
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // slow-query log off: the benchmarks time the calls themselves
+        // the fixture graph is never written, so the data version stays put
+        DataVersion dataVersion = new DataVersion();
+        // one connection, so one permit: seed groups are never split
+        ConcurrencyProperties concurrency = new ConcurrencyProperties(true, Duration.ofMillis(500), 64, Map.of());
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(concurrency, new DuckDbPoolProperties(1, 0));
+        this.repository = new DuckDbGraphRepositoryJdbc(jdbc, jdbc, new SlowQueryLog(
+                new SlowQueryProperties(false, Duration.ZERO, 1, false, Duration.ZERO), jdbc, limiter, concurrency),
+                dataVersion);
+        GraphMetrics metrics = new GraphMetrics(new SimpleMeterRegistry());
+        CachingGraphRepository cached = new CachingGraphRepository(new MeteredGraphRepository(repository, metrics),
+                new NodeCacheProperties(true, 64L * 1024 * 1024, Duration.ofMinutes(10)), dataVersion);
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.topologyEngine = new GraphTopologyEngine(cached,
+                new TopologyProperties(topology, Duration.ofMinutes(5), 0, List.of("amount")), objectMapper);
+        this.topologyEngine.reload();
+        this.service = new GraphExploreService(cached, topologyEngine, new OneHopCursorCodec(objectMapper),
+                Runnable::run, limiter, metrics);
+    }
+
+    static GraphFixture open(long edgeCount, boolean topology) throws Exception {
+        Path file = Path.of(System.getProperty("graph.bench.dir", "target/jmh-graphs"),
+                "graph-" + edgeCount + "-v" + PowerLawGraphGenerator.schemaVersion() + ".duckdb");
+        if (!Files.exists(file)) {
+            // generate next to the target and move it in, so a failed run never leaves a half-filled file behind
+            Path partial = file.resolveSibling(file.getFileName() + ".partial");
+            PowerLawGraphGenerator.generate(partial, edgeCount, 42L);
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+        SingleConnectionDataSource dataSource =
+                new SingleConnectionDataSource("jdbc:duckdb:" + file.toAbsolutePath(), true);
+        return new GraphFixture(dataSource, PowerLawGraphGenerator.nodeCount(edgeCount), topology);
+    }
+
+    /**
+     * Node id drawn with the generator's source skew, so samples mostly hit nodes with out-edges.
+     */
+    String sampleSource(SplittableRandom random) {
+        return PowerLawGraphGenerator.nodeId(PowerLawGraphGenerator.skewedIndex(random, nodeCount, PowerLawGraphGenerator.SRC_SKEW));
+    }
+
+    String sampleNode(SplittableRandom random) {
+        return PowerLawGraphGenerator.nodeId(random.nextLong(nodeCount));
+    }
+
+    /**
+     * {@code phone_no} lookup value of a random phone node.
+     */
+    String samplePhoneNo(SplittableRandom random) {
+        return Long.toString(random.nextLong((nodeCount - 2) / 3) * 3 + 1);
+    }
+
+    @Override
+    public void close() {
+        dataSource.destroy();
+    }
+}
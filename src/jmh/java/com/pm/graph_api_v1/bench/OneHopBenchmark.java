@@ -0,0 +1,51 @@
+package com.pm.graph_api_v1.bench;
+
+import com.pm.graph_api_v1.api.dto.graph.GraphResponse;
+import com.pm.graph_api_v1.api.dto.graph.OneHopRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GraphExploreService.oneHop} end to end (seed resolution, edge window, node fetch through the cache).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OneHopBenchmark {
+
+    @Param({"100000"})
+    public long edges;
+
+    @Param({"1", "50", "200"})
+    public int seeds;
+
+    private GraphFixture fixture;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = GraphFixture.open(edges, true);
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public GraphResponse oneHop() {
+        List<String> ids = new ArrayList<>(seeds);
+        for (int i = 0; i < seeds; i++) {
+            ids.add(fixture.sampleSource(random));
+        }
+        return fixture.service.oneHop(new OneHopRequest(ids, null, null, null, null, 200, null, null));
+    }
+}
@@ -0,0 +1,181 @@
+package com.pm.graph_api_v1.bench;
+
+import org.duckdb.DuckDBAppender;
+import org.duckdb.DuckDBConnection;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic graph with power-law degrees into a DuckDB file using the application schema
+ * (every {@code db/migration/V*.sql} script, applied in version order).
+ * <p>
+ * Node {@code i} is {@code person:i}, {@code phone:i} or {@code company:i} depending on {@code i % 3};
+ * low indexes are hubs on both ends. Every phone gets a {@code phone_no} lookup row and every company
+ * a {@code party_rk} one, so lookup benchmarks can pick values by index. The node index doubles as its
+ * {@code node_key}.
+ * <p>
+ * Usage: {@code PowerLawGraphGenerator <file.duckdb> <edgeCount> [seed]}
+ */
+public final class PowerLawGraphGenerator {
+
+    static final String[] EDGE_KINDS = {"transfer", "contact", "owns"};
+
+    /** Average out-degree; node count is derived from the edge count. */
+    static final int AVG_DEGREE = 10;
+
+    static final double SRC_SKEW = 2.5;
+    static final double DST_SKEW = 2.0;
+
+    private PowerLawGraphGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: PowerLawGraphGenerator <file.duckdb> <edgeCount> [seed]");
+            System.exit(2);
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        generate(Path.of(args[0]), Long.parseLong(args[1]), seed);
+    }
+
+    public static long nodeCount(long edgeCount) {
+        return Math.max(16, edgeCount / AVG_DEGREE);
+    }
+
+    public static String nodeId(long index) {
+        return switch ((int) (index % 3)) {
+            case 0 -> "person:" + index;
+            case 1 -> "phone:" + index;
+            default -> "company:" + index;
+        };
+    }
+
+    /**
+     * Index drawn with density falling off as a power of the index: small indexes are hubs.
+     */
+    static long skewedIndex(SplittableRandom random, long nodeCount, double skew) {
+        return Math.min(nodeCount - 1, (long) (nodeCount * Math.pow(random.nextDouble(), skew)));
+    }
+
+    public static void generate(Path file, long edgeCount, long seed) throws SQLException, IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + ".wal"));
+
+        long nodeCount = nodeCount(edgeCount);
+        long started = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection("jdbc:duckdb:" + file.toAbsolutePath())) {
+            applyMigrations(connection);
+            DuckDBConnection duck = connection.unwrap(DuckDBConnection.class);
+
+            try (Statement st = connection.createStatement()) {
+                st.execute("CREATE TABLE gen_edges (src BIGINT, dst BIGINT, kind VARCHAR, amount BIGINT)");
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            try (DuckDBAppender appender = duck.createAppender(DuckDBConnection.DEFAULT_SCHEMA, "gen_edges")) {
+                for (long i = 0; i < edgeCount; i++) {
+                    long src = skewedIndex(random, nodeCount, SRC_SKEW);
+                    long dst = skewedIndex(random, nodeCount, DST_SKEW);
+                    if (dst == src) {
+                        dst = (dst + 1) % nodeCount;
+                    }
+                    appender.beginRow();
+                    appender.append(src);
+                    appender.append(dst);
+                    appender.append(EDGE_KINDS[random.nextInt(EDGE_KINDS.length)]);
+                    appender.append(random.nextLong(1, 1_000_000));
+                    appender.endRow();
+                }
+            }
+
+            try (Statement st = connection.createStatement()) {
+                st.execute("""
+                    INSERT INTO node_keys (node_key, id)
+                    SELECT i, CASE i %% 3 WHEN 0 THEN 'person:' WHEN 1 THEN 'phone:' ELSE 'company:' END || i
+                    FROM range(%d) t(i)
+                    """.formatted(nodeCount));
+                st.execute("""
+                    INSERT INTO nodes (node_key, kind, label, attrs, flags)
+                    SELECT node_key,
+                           split_part(id, ':', 1),
+                           'Node ' || node_key,
+                           json_object('rank', node_key),
+                           CASE WHEN node_key % 50 = 0 THEN ['vip'] ELSE []::VARCHAR[] END
+                    FROM node_keys
+                    """);
+                st.execute("""
+                    INSERT INTO node_lookup (lookup_kind, lookup_value, node_key)
+                    SELECT CASE WHEN i %% 3 = 1 THEN 'phone_no' ELSE 'party_rk' END, CAST(i AS VARCHAR), i
+                    FROM range(%d) t(i)
+                    WHERE i %% 3 <> 0
+                    """.formatted(nodeCount));
+                st.execute("""
+                    INSERT INTO edge_kinds (code, name)
+                    SELECT row_number() OVER (ORDER BY kind) - 1, kind
+                    FROM (SELECT DISTINCT kind FROM gen_edges) k
+                    """);
+                // duplicates of (src, dst, kind) are dropped and ids left to be derived; rows laid out like the index
+                st.execute("""
+                    INSERT INTO edges (src, dst, id, kind, attrs, flags)
+                    SELECT g.src, g.dst, NULL, k.code,
+                           json_object('amount', g.amount), []::VARCHAR[]
+                    FROM gen_edges g
+                    JOIN edge_kinds k ON k.name = g.kind
+                    QUALIFY row_number() OVER (PARTITION BY g.src, g.dst, g.kind) = 1
+                    ORDER BY g.src, k.code, g.dst
+                    """);
+                st.execute("DROP TABLE gen_edges");
+                st.execute("CHECKPOINT");
+            }
+        }
+        System.out.printf("Generated %s: %d nodes, %d edges requested in %d ms%n",
+                file, nodeCount, edgeCount, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Latest migration version, part of the cached graph file name so a schema change regenerates the graphs.
+     */
+    static int schemaVersion() throws IOException {
+        int latest = 0;
+        for (Resource script : migrations()) {
+            latest = Math.max(latest, version(script));
+        }
+        return latest;
+    }
+
+    private static Resource[] migrations() throws IOException {
+        return new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/V*.sql");
+    }
+
+    private static void applyMigrations(Connection connection) throws SQLException, IOException {
+        Resource[] scripts = migrations();
+        Arrays.sort(scripts, Comparator.comparingInt(PowerLawGraphGenerator::version));
+        try (Statement st = connection.createStatement()) {
+            for (Resource script : scripts) {
+                String sql = script.getContentAsString(StandardCharsets.UTF_8);
+                for (String statement : sql.split(";")) {
+                    if (!statement.isBlank()) {
+                        st.execute(statement);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int version(Resource script) {
+        String name = script.getFilename();
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+}
@@ -0,0 +1,54 @@
+package com.pm.graph_api_v1.bench;
+
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw JDBC repository lookups against a generated power-law graph (no node cache, no topology).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"100000"})
+    public long edges;
+
+    private GraphFixture fixture;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = GraphFixture.open(edges, false);
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<EdgeDto> findOutEdges() {
+        return fixture.repository.findOutEdges(fixture.sampleSource(random), "", 200, Set.of());
+    }
+
+    @Benchmark
+    public List<NodeDto> findNodesByLookup() {
+        List<String> values = new ArrayList<>(50);
+        for (int i = 0; i < 50; i++) {
+            values.add(fixture.samplePhoneNo(random));
+        }
+        return fixture.repository.findNodesByLookup("phone_no", values);
+    }
+}
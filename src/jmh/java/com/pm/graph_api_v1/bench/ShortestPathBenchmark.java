@@ -0,0 +1,52 @@
+package com.pm.graph_api_v1.bench;
+
+import com.pm.graph_api_v1.domain.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive-CTE {@code shortestPathVertices} at several hop limits, following out-edges or ignoring the
+ * edge direction. Pairs are random, so most calls explore the whole {@code maxHops} ball before giving up,
+ * which is the case worth tracking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    @Param({"100000"})
+    public long edges;
+
+    @Param({"2", "4", "6"})
+    public int maxHops;
+
+    @Param({"OUT", "BOTH"})
+    public Direction direction;
+
+    private GraphFixture fixture;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = GraphFixture.open(edges, false);
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<String> shortestPathVertices() {
+        return fixture.repository.shortestPathVertices(
+                fixture.sampleSource(random), fixture.sampleNode(random), maxHops, direction, Set.of());
+    }
+}
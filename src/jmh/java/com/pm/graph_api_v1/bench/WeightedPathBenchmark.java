@@ -0,0 +1,49 @@
+package com.pm.graph_api_v1.bench;
+
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.PathObjective;
+import com.pm.graph_api_v1.domain.WeightedPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory weighted shortest path by the generated {@code amount} edge attribute, for both objectives.
+ * Pairs are random, as in {@link ShortestPathBenchmark}, so most calls settle the whole reachable ball.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeightedPathBenchmark {
+
+    @Param({"100000"})
+    public long edges;
+
+    @Param({"MIN", "MAX"})
+    public PathObjective objective;
+
+    private GraphFixture fixture;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = GraphFixture.open(edges, true);
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public WeightedPath weightedShortestPath() {
+        return fixture.topologyEngine.weightedShortestPath(fixture.sampleSource(random), fixture.sampleNode(random),
+                6, Direction.OUT, Set.of(), "amount", objective);
+    }
+}
@@ -2,8 +2,10 @@ package com.pm.graph_api_v1;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class GraphApiV1Application {
 
     public static void main(String[] args) {
@@ -0,0 +1,9 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+public record CacheStatsDto(
+        long hits,
+        long misses,
+        long evictions,
+        long size,
+        long weightBytes
+) {}
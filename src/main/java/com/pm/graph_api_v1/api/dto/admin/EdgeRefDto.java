@@ -0,0 +1,16 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record EdgeRefDto(
+        @NotBlank @Size(max = 512)
+        String src,
+
+        @NotBlank @Size(max = 512)
+        String dst,
+
+        // если не задан — удаляются ребра всех типов между src и dst
+        @Size(max = 64)
+        String kind
+) {}
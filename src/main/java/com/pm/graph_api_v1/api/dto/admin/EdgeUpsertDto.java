@@ -0,0 +1,34 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+
+public record EdgeUpsertDto(
+        // если не задан — "src->dst:kind"
+        @Size(max = 1024)
+        String id,
+
+        @NotBlank @Size(max = 512)
+        String src,
+
+        @NotBlank @Size(max = 512)
+        String dst,
+
+        // по умолчанию "edge"; ребро с тем же (src, dst, kind) заменяется
+        @Size(max = 64)
+        String kind,
+
+        JsonNode attrs,
+
+        @Size(max = 64)
+        Set<String> flags
+) {
+    @AssertTrue(message = "attrs must be a JSON object")
+    public boolean isAttrsObject() {
+        return attrs == null || attrs.isNull() || attrs.isObject();
+    }
+}
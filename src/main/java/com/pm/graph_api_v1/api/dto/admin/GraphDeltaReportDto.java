@@ -0,0 +1,9 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+public record GraphDeltaReportDto(
+        int upsertedNodes,
+        int deletedNodes,
+        int addedEdges,
+        int removedEdges,
+        long durationMs
+) {}
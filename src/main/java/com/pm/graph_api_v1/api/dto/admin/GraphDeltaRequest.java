@@ -0,0 +1,32 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record GraphDeltaRequest(
+        @Valid @Size(max = 10_000)
+        List<NodeUpsertDto> upsertNodes,
+
+        // узлы удаляются вместе с lookup-записями и инцидентными ребрами
+        @Size(max = 10_000)
+        List<@NotBlank String> deleteNodes,
+
+        @Valid @Size(max = 10_000)
+        List<EdgeUpsertDto> addEdges,
+
+        @Valid @Size(max = 10_000)
+        List<EdgeRefDto> removeEdges
+) {
+    @AssertTrue(message = "At least one of upsertNodes/deleteNodes/addEdges/removeEdges must be provided")
+    public boolean isAnyChangePresent() {
+        return hasValues(upsertNodes) || hasValues(deleteNodes) || hasValues(addEdges) || hasValues(removeEdges);
+    }
+
+    private static boolean hasValues(List<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+public record IngestReportDto(
+        Long nodes,     // null, если таблица не загружалась
+        Long edges,
+        Long lookups,
+        long durationMs
+) {}
@@ -0,0 +1,15 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+
+public record IngestRequest(
+        @Valid IngestSourceDto nodes,
+        @Valid IngestSourceDto edges,
+        @Valid IngestSourceDto lookups
+) {
+    @AssertTrue(message = "At least one of nodes/edges/lookups must be provided")
+    public boolean isAnySourcePresent() {
+        return nodes != null || edges != null || lookups != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public record IngestSourceDto(
+        // путь относительно graph.ingest.base-dir, допускаются glob-шаблоны (edges/*.parquet)
+        @NotBlank @Size(max = 1024)
+        String path,
+
+        // parquet | csv | ndjson; если не задан — по расширению файла
+        @Pattern(regexp = "parquet|csv|ndjson")
+        String format
+) {}
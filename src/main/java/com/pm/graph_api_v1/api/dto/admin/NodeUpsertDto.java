@@ -0,0 +1,30 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+
+public record NodeUpsertDto(
+        @NotBlank @Size(max = 512)
+        String id,
+
+        // если не задан — по префиксу id ("person:123" -> person)
+        @Size(max = 64)
+        String kind,
+
+        @Size(max = 512)
+        String label,
+
+        JsonNode attrs,
+
+        @Size(max = 64)
+        Set<String> flags
+) {
+    @AssertTrue(message = "attrs must be a JSON object")
+    public boolean isAttrsObject() {
+        return attrs == null || attrs.isNull() || attrs.isObject();
+    }
+}
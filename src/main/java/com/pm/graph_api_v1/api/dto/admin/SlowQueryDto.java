@@ -0,0 +1,19 @@
+package com.pm.graph_api_v1.api.dto.admin;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SlowQueryDto(
+        Instant at,             // время завершения запроса
+        String operation,       // метод репозитория
+        String sql,
+        List<String> params,    // типы параметров без значений, повторы свернуты: "String×150"
+        long rows,              // -1, если запрос упал
+        long durationMs,
+        String error,           // сообщение об ошибке или null
+        String plan             // вывод EXPLAIN ANALYZE, null пока не снят или если выключен
+) {
+    public SlowQueryDto withPlan(String plan) {
+        return new SlowQueryDto(at, operation, sql, params, rows, durationMs, error, plan);
+    }
+}
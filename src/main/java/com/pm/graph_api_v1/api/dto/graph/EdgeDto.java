@@ -1,6 +1,5 @@
 package com.pm.graph_api_v1.api.dto.graph;
 
-import java.util.Map;
 import java.util.Set;
 
 public record EdgeDto(
@@ -8,6 +7,6 @@ public record EdgeDto(
         String src,
         String dst,
         String kind,    // тип связи: transfer/tk/...
-        Map<String, Object> attrs,
+        RawJson attrs,
         Set<String> flags   // статусы/теги ребра
 ) {}
@@ -0,0 +1,12 @@
+package com.pm.graph_api_v1.api.dto.graph;
+
+import java.util.List;
+import java.util.Map;
+
+public record ExpandResponse(
+        List<NodeDto> nodes,
+        List<EdgeDto> edges,
+        Map<String, Integer> hops,  // id узла -> расстояние от ближайшего seed
+        boolean truncated,          // сработал fanOut, maxNodes или дедлайн
+        boolean timedOut            // обход остановлен по дедлайну запроса, результат частичный
+) {}
@@ -5,5 +5,6 @@ import java.util.List;
 public record GraphResponse(
         List<NodeDto> nodes,
         List<EdgeDto> edges,
-        List<SeedPageDto> pages
+        List<SeedPageDto> pages,
+        String nextCursor   // null, если следующих страниц нет
 ) {}
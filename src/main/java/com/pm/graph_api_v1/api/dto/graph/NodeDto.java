@@ -1,12 +1,21 @@
 package com.pm.graph_api_v1.api.dto.graph;
 
-import java.util.Map;
 import java.util.Set;
 
 public record NodeDto(
         String id,          // стабильный id: "person:123", "phone:+7999..."
         String kind,        // тип: person/phone/company/...
         String label,       // короткий текст для UI
-        Map<String, Object> attrs, // поля для hover
-        Set<String> flags   // статусы: vip/blacklist/...
-) {}
+        RawJson attrs, // поля для hover
+        Set<String> flags,  // статусы: vip/blacklist/...
+        Integer outDegree,  // число исходящих ребер (null, если граф в памяти не загружен)
+        Integer inDegree    // число входящих ребер
+) {
+    public NodeDto(String id, String kind, String label, RawJson attrs, Set<String> flags) {
+        this(id, kind, label, attrs, flags, null, null);
+    }
+
+    public NodeDto withDegrees(int outDegree, int inDegree) {
+        return new NodeDto(id, kind, label, attrs, flags, outDegree, inDegree);
+    }
+}
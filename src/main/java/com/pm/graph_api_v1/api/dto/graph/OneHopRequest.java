@@ -1,6 +1,7 @@
 package com.pm.graph_api_v1.api.dto.graph;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.pm.graph_api_v1.domain.Direction;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -25,14 +26,18 @@ public record OneHopRequest(
         @Size(max = 200)
         List<String> partyRks,
 
-        @Size(max = 200)
+        // непрозрачный токен из GraphResponse.nextCursor
+        @Size(max = 32768)
         String cursor,
 
         @Min(1) @Max(200)
         int limit,
 
         @Size(max = 20)
-        Set<String> edgeKinds
+        Set<String> edgeKinds,
+
+        // out (по умолчанию) | in | both
+        Direction direction
 ) {
     @AssertTrue(message = "At least one of seeds/ids/phoneNos/partyRks must be provided")
     public boolean isAnySeedPresent() {
@@ -5,5 +5,6 @@ import java.util.List;
 public record PathResponse(
         List<NodeDto> nodes,
         List<EdgeDto> edges,
-        int length
+        int length,
+        Double cost         // стоимость пути для weightAttr (null для поиска по числу хопов)
 ) {}
@@ -0,0 +1,36 @@
+package com.pm.graph_api_v1.api.dto.graph;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.IOException;
+
+/**
+ * JSON document kept as text: read from a DuckDB {@code JSON} column and written into the
+ * response as-is, without a parse/serialize round trip.
+ */
+@Schema(type = "object", description = "Arbitrary JSON object")
+@JsonSerialize(using = RawJson.Serializer.class)
+public record RawJson(String json) {
+
+    public static final RawJson EMPTY_OBJECT = new RawJson("{}");
+
+    public static RawJson of(String json) {
+        return json == null || json.isBlank() ? EMPTY_OBJECT : new RawJson(json);
+    }
+
+    public static final class Serializer extends StdSerializer<RawJson> {
+
+        public Serializer() {
+            super(RawJson.class);
+        }
+
+        @Override
+        public void serialize(RawJson value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.pm.graph_api_v1.api.dto.graph;
+
+public record ResolveMatchDto(
+        String kind,    // id | phone_no | party_rk
+        String value,   // значение из запроса
+        String nodeId   // null для нерезолвленных значений
+) {}
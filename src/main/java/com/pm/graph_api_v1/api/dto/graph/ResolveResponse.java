@@ -2,4 +2,8 @@ package com.pm.graph_api_v1.api.dto.graph;
 
 import java.util.List;
 
-public record ResolveResponse(List<NodeDto> nodes) {}
+public record ResolveResponse(
+        List<NodeDto> nodes,
+        List<ResolveMatchDto> matches,     // какое значение запроса на какой узел указало
+        List<ResolveMatchDto> unresolved   // значения запроса без совпадений
+) {}
@@ -1,5 +1,8 @@
 package com.pm.graph_api_v1.api.dto.graph;
 
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.PathAlgorithm;
+import com.pm.graph_api_v1.domain.PathObjective;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -13,5 +16,17 @@ public record ShortestPathRequest(
         Set<String> edgeKinds,
 
         // чтобы не улететь в бесконечные обходы в MVP
-        int maxHops
+        int maxHops,
+
+        // bfs | bidirectional (по умолчанию)
+        PathAlgorithm algorithm,
+
+        // out (по умолчанию) | in | both
+        Direction direction,
+
+        // числовой атрибут ребра из graph.topology.weight-attrs; если задан, путь ищется по весам, а не по числу хопов
+        @Size(max = 200) String weightAttr,
+
+        // min (по умолчанию): минимальная сумма весов | max: максимальный минимальный вес ребра на пути
+        PathObjective objective
 ) {}
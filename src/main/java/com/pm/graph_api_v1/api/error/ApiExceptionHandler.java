@@ -1,6 +1,16 @@
 package com.pm.graph_api_v1.api.error;
 
+import com.pm.graph_api_v1.exeption.DeadlineExceededException;
+import com.pm.graph_api_v1.exeption.InvalidBulkInputException;
+import com.pm.graph_api_v1.exeption.InvalidCursorException;
+import com.pm.graph_api_v1.exeption.InvalidIngestRequestException;
+import com.pm.graph_api_v1.exeption.InvalidPathRequestException;
+import com.pm.graph_api_v1.exeption.ServiceOverloadedException;
+import com.pm.graph_api_v1.exeption.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -20,4 +30,54 @@ public class ApiExceptionHandler {
 
         return new ApiError("VALIDATION_ERROR", "Request validation failed", fields);
     }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public ApiError handleInvalidCursor(InvalidCursorException ex) {
+        return new ApiError("INVALID_CURSOR", ex.getMessage(), List.of(new FieldErrorDto("cursor", ex.getMessage())));
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidBulkInputException.class)
+    public ApiError handleInvalidBulkInput(InvalidBulkInputException ex) {
+        return new ApiError("INVALID_BULK_INPUT", ex.getMessage(), List.of());
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidIngestRequestException.class)
+    public ApiError handleInvalidIngestRequest(InvalidIngestRequestException ex) {
+        return new ApiError("INVALID_INGEST_REQUEST", ex.getMessage(), List.of());
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidPathRequestException.class)
+    public ApiError handleInvalidPathRequest(InvalidPathRequestException ex) {
+        return new ApiError("INVALID_PATH_REQUEST", ex.getMessage(),
+                List.of(new FieldErrorDto("weightAttr", ex.getMessage())));
+    }
+
+    // admission errors are raised before the handler runs, so the content type is fixed explicitly:
+    // the request may have been mapped to the NDJSON variant of an endpoint
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiError("TOO_MANY_REQUESTS", ex.getMessage(), List.of()));
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiError("SERVICE_OVERLOADED", ex.getMessage(), List.of()));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ApiError> handleDeadlineExceeded(DeadlineExceededException ex) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiError("DEADLINE_EXCEEDED", ex.getMessage(), List.of()));
+    }
 }
@@ -0,0 +1,59 @@
+package com.pm.graph_api_v1.concurrency;
+
+import com.pm.graph_api_v1.config.ConcurrencyProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Takes a {@link DbConcurrencyLimiter} permit before a graph endpoint runs and returns it once the
+ * response is complete. Streaming responses keep the permit across the async dispatch: the request
+ * attribute marks it as held, so the second {@code preHandle} does not take another one.
+ */
+@Component
+public class DbAdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    static final String API_PREFIX = "/api/v1/graph/";
+
+    private static final String PERMIT_ATTRIBUTE = DbAdmissionInterceptor.class.getName() + ".PERMIT";
+
+    private final DbConcurrencyLimiter limiter;
+    private final ConcurrencyProperties properties;
+
+    public DbAdmissionInterceptor(DbConcurrencyLimiter limiter, ConcurrencyProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.enabled() || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        limiter.acquire(endpoint(request));
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null && !request.isAsyncStarted()) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            limiter.release();
+        }
+    }
+
+    /**
+     * Endpoint key for queue limits and deadlines: the mapping path below {@value #API_PREFIX}, e.g. {@code resolve-bulk}.
+     */
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        if (path.startsWith(API_PREFIX)) {
+            path = path.substring(API_PREFIX.length());
+        }
+        return path.replace('/', '-');
+    }
+}
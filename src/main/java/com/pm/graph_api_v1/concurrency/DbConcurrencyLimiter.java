@@ -0,0 +1,103 @@
+package com.pm.graph_api_v1.concurrency;
+
+import com.pm.graph_api_v1.config.ConcurrencyProperties;
+import com.pm.graph_api_v1.config.DuckDbPoolProperties;
+import com.pm.graph_api_v1.exeption.ServiceOverloadedException;
+import com.pm.graph_api_v1.exeption.TooManyRequestsException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fair semaphore sized to the read pool, so at most that many requests work against DuckDB and the rest
+ * wait in arrival order instead of piling up on the pool. Waiting is bounded twice: per endpoint by a
+ * queue limit (excess is rejected at once with 429) and in time by the acquire timeout (503).
+ */
+@Component
+public class DbConcurrencyLimiter {
+
+    private final ConcurrencyProperties properties;
+    private final int size;
+    private final Semaphore permits;
+    private final Map<String, AtomicInteger> waiting = new ConcurrentHashMap<>();
+
+    public DbConcurrencyLimiter(ConcurrencyProperties properties, DuckDbPoolProperties poolProperties) {
+        this.properties = properties;
+        this.size = poolProperties.effectiveReadPoolSize();
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * @return total number of permits, i.e. how many queries may run at once
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Blocks until a permit is free, at most until the acquire timeout or the request {@link Deadline};
+     * every successful call must be paired with {@link #release()}.
+     */
+    public void acquire(String endpoint) {
+        try {
+            // the timed variant honors fairness, the untimed tryAcquire() would barge past waiting requests
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for graph storage");
+        }
+        AtomicInteger queued = waiting.computeIfAbsent(endpoint, k -> new AtomicInteger());
+        if (queued.incrementAndGet() > properties.queueLimit(endpoint)) {
+            queued.decrementAndGet();
+            throw new TooManyRequestsException("Too many concurrent " + endpoint + " requests, retry later");
+        }
+        Deadline deadline = Deadline.current();
+        try {
+            long timeout = Math.min(properties.acquireTimeout().toNanos(), deadline.remainingNanos());
+            if (!permits.tryAcquire(timeout, TimeUnit.NANOSECONDS)) {
+                deadline.check();
+                throw new ServiceOverloadedException("Graph storage is saturated, retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for graph storage");
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes up to {@code wanted} more permits for a request that already holds one and wants to run queries
+     * side by side, without waiting and without overtaking queued requests.
+     *
+     * @return how many were taken, to be given back with {@link #release(int)}
+     */
+    public int tryAcquireExtra(int wanted) {
+        int taken = 0;
+        try {
+            // the timed variant honors fairness, the untimed tryAcquire() would barge past waiting requests
+            while (taken < wanted && permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                taken++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return taken;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public void release(int count) {
+        if (count > 0) {
+            permits.release(count);
+        }
+    }
+}
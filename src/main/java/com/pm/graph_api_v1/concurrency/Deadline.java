@@ -0,0 +1,100 @@
+package com.pm.graph_api_v1.concurrency;
+
+import com.pm.graph_api_v1.exeption.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which the current request must be answered.
+ * <p>
+ * The deadline of the running request is bound to the thread ({@link #current()}); request threads get it from
+ * {@link RequestDeadlineInterceptor}, pool threads from {@link #propagate}, so repository calls and traversal
+ * loops can consult it without threading it through every signature. Outside a request it is {@link #NONE}.
+ */
+public final class Deadline {
+
+    public static final Deadline NONE = new Deadline(0, false);
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+    private final boolean bounded;
+
+    private Deadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos(), true);
+    }
+
+    public static Deadline current() {
+        Deadline deadline = CURRENT.get();
+        return deadline == null ? NONE : deadline;
+    }
+
+    /**
+     * Runs {@code action} with {@code deadline} bound to this thread and restores the previous one afterwards.
+     */
+    public static <T> T callWith(Deadline deadline, Supplier<T> action) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Carries the caller's deadline over to the thread that will run {@code task}.
+     */
+    public static Runnable propagate(Runnable task) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> callWith(deadline, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * @return nanoseconds left, never negative; {@link Long#MAX_VALUE} for {@link #NONE}
+     */
+    public long remainingNanos() {
+        return bounded ? Math.max(0, expiresAtNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    public boolean expired() {
+        return bounded && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException when the deadline has passed
+     */
+    public void check() {
+        if (expired()) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.pm.graph_api_v1.concurrency;
+
+import com.pm.graph_api_v1.exeption.DeadlineExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JdbcTemplate} that enforces the request {@link Deadline} on every statement.
+ * <p>
+ * DuckDB's JDBC driver ignores {@link Statement#setQueryTimeout}, so the first statement of a connection use
+ * arms a watchdog that calls {@link Statement#cancel()} (a DuckDB interrupt) once the deadline passes; the
+ * query then fails and the failure surfaces as {@link DeadlineExceededException}. The interrupt applies to
+ * the whole connection, so the watchdog is disarmed when the connection is closed, i.e. before it goes back
+ * to the pool, and can never hit a query of the next borrower. Statements started after the deadline fail
+ * without reaching DuckDB.
+ */
+public class DeadlineJdbcTemplate extends JdbcTemplate {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineJdbcTemplate.class);
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "duckdb-deadline-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ThreadLocal<Watch> WATCH = new ThreadLocal<>();
+
+    public DeadlineJdbcTemplate(DataSource dataSource) {
+        super(new DisarmingDataSource(dataSource));
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        Deadline deadline = Deadline.current();
+        if (!deadline.isBounded()) {
+            return;
+        }
+        deadline.check();
+        Watch watch = WATCH.get();
+        if (watch == null) {
+            watch = new Watch(stmt);
+            WATCH.set(watch);
+            watch.schedule(deadline.remainingNanos());
+        } else {
+            watch.retarget(stmt);
+        }
+    }
+
+    @Override
+    protected DataAccessException translateException(String task, String sql, SQLException ex) {
+        if (Deadline.current().expired()) {
+            throw new DeadlineExceededException("Request deadline exceeded while running a DuckDB query");
+        }
+        return super.translateException(task, sql, ex);
+    }
+
+    private static void disarm() {
+        Watch watch = WATCH.get();
+        if (watch != null) {
+            WATCH.remove();
+            watch.disarm();
+        }
+    }
+
+    /**
+     * Pending cancel of the statement currently running on one borrowed connection.
+     */
+    private static final class Watch implements Runnable {
+
+        private Statement statement;
+        private ScheduledFuture<?> future;
+        private boolean disarmed;
+
+        private Watch(Statement statement) {
+            this.statement = statement;
+        }
+
+        synchronized void schedule(long delayNanos) {
+            future = WATCHDOG.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized void retarget(Statement next) {
+            statement = next;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (disarmed) {
+                return;
+            }
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.debug("Failed to cancel a DuckDB statement past its deadline", e);
+            }
+        }
+
+        /**
+         * Waits for a cancel in progress, so nothing is interrupted once this returns.
+         */
+        synchronized void disarm() {
+            disarmed = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Hands out connections that disarm the watchdog of the current thread when closed.
+     */
+    private static final class DisarmingDataSource extends DelegatingDataSource {
+
+        private DisarmingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return disarmingOnClose(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return disarmingOnClose(super.getConnection(username, password));
+        }
+
+        private static Connection disarmingOnClose(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "close":
+                                disarm();
+                                break;
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
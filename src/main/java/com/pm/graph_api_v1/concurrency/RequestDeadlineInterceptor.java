@@ -0,0 +1,65 @@
+package com.pm.graph_api_v1.concurrency;
+
+import com.pm.graph_api_v1.config.DeadlineProperties;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Binds a {@link Deadline} to the request thread before a graph endpoint runs: the client's
+ * {@value #TIMEOUT_HEADER} (milliseconds, capped by {@code graph.deadline.max-timeout}) or the configured
+ * endpoint timeout. Streaming bodies inherit it on the executor thread, so the async re-dispatch
+ * does not start a new one.
+ */
+@Component
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final DeadlineProperties properties;
+
+    public RequestDeadlineInterceptor(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (properties.enabled() && request.getDispatcherType() != DispatcherType.ASYNC) {
+            Deadline.set(Deadline.after(timeout(request)));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Deadline.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Deadline.clear();
+    }
+
+    private Duration timeout(HttpServletRequest request) {
+        Duration configured = properties.timeout(DbAdmissionInterceptor.endpoint(request));
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header == null || header.isBlank()) {
+            return configured;
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            if (millis <= 0) {
+                return configured;
+            }
+            Duration requested = Duration.ofMillis(millis);
+            return requested.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout() : requested;
+        } catch (NumberFormatException e) {
+            // a malformed header is ignored rather than failing the request
+            return configured;
+        }
+    }
+}
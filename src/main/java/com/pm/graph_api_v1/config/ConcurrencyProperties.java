@@ -0,0 +1,27 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Admission control for the graph API: every request holds one DuckDB permit while it runs.
+ *
+ * @param enabled           when false requests go straight to the connection pool
+ * @param acquireTimeout    how long a queued request waits for a permit before a 503
+ * @param defaultQueueLimit requests of one endpoint allowed to wait for a permit before a 429
+ * @param queueLimits       per-endpoint overrides of {@code defaultQueueLimit}, keyed like {@code one-hop}, {@code resolve-bulk}
+ */
+@ConfigurationProperties(prefix = "graph.concurrency")
+public record ConcurrencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500ms") Duration acquireTimeout,
+        @DefaultValue("64") int defaultQueueLimit,
+        Map<String, Integer> queueLimits
+) {
+    public int queueLimit(String endpoint) {
+        return queueLimits == null ? defaultQueueLimit : queueLimits.getOrDefault(endpoint, defaultQueueLimit);
+    }
+}
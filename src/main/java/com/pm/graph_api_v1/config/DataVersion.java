@@ -0,0 +1,85 @@
+package com.pm.graph_api_v1.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter bumped after every statement and transaction the writer finishes, so cached read statements
+ * can tell they were prepared against older data.
+ * <p>
+ * DuckDB plans a statement with the table statistics of prepare time and does not rebind it when only the
+ * data changes (it does on catalog changes). Such a plan can go wrong, not just slow: a sort over VARCHAR
+ * columns prepared on an empty table returns garbage strings once rows arrive (seen with 1.1.3).
+ * {@link StatementCachingConnection} therefore drops statements prepared before the current version.
+ * Other in-memory copies of table data (the edge kind dictionary) use it the same way to tell they may be stale.
+ */
+public final class DataVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Wraps a writer connection so that closing its statements and ending its transactions bump the version.
+     */
+    Connection track(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "commit", "rollback":
+                            try {
+                                return invoke(target, method, args);
+                            } finally {
+                                version.incrementAndGet();
+                            }
+                        default:
+                            break;
+                    }
+                    Object result = invoke(target, method, args);
+                    return result instanceof Statement statement ? bumpingOnClose(statement) : result;
+                });
+    }
+
+    private Statement bumpingOnClose(Statement statement) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                return invoke(statement, method, args);
+                            } finally {
+                                version.incrementAndGet();
+                            }
+                        default:
+                            return invoke(statement, method, args);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
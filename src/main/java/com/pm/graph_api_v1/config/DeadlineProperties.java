@@ -0,0 +1,27 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-request deadlines for the graph API.
+ *
+ * @param enabled        when false requests run without a deadline
+ * @param defaultTimeout time budget of a request unless overridden below or by the client
+ * @param timeouts       per-endpoint overrides of {@code defaultTimeout}, keyed like {@code shortest-path}, {@code resolve-bulk}
+ * @param maxTimeout     upper bound for a client-supplied {@code X-Request-Timeout}
+ */
+@ConfigurationProperties(prefix = "graph.deadline")
+public record DeadlineProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10s") Duration defaultTimeout,
+        Map<String, Duration> timeouts,
+        @DefaultValue("60s") Duration maxTimeout
+) {
+    public Duration timeout(String endpoint) {
+        return timeouts == null ? defaultTimeout : timeouts.getOrDefault(endpoint, defaultTimeout);
+    }
+}
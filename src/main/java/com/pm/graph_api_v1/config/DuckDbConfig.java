@@ -1,4 +1,129 @@
 package com.pm.graph_api_v1.config;
 
+import com.pm.graph_api_v1.concurrency.DeadlineJdbcTemplate;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.duckdb.DuckDBConnection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Splits DuckDB access into a read pool and a single writer.
+ * <p>
+ * All connections are {@link DuckDBConnection#duplicate() duplicates} of one root connection, i.e. sessions
+ * on the same in-process database, which is what lets readers run in parallel while a write is in flight
+ * (a second {@code access_mode=READ_ONLY} open of the same file is refused by DuckDB inside one process).
+ * <ul>
+ *     <li>{@code dataSource} / {@code jdbcTemplate} (primary): one connection for migrations, ingestion and
+ *     live edits, so writers queue up instead of failing on write-write conflicts;</li>
+ *     <li>{@value #READ_DATA_SOURCE} / {@value #READ_JDBC_TEMPLATE}: {@code graph.duckdb.read-pool-size}
+ *     connections for repository queries; DuckDB's MVCC keeps them on the last committed state. Queries on
+ *     these connections are cancelled at the request {@link com.pm.graph_api_v1.concurrency.Deadline deadline}.</li>
+ * </ul>
+ */
+@Configuration
 public class DuckDbConfig {
+
+    public static final String READ_DATA_SOURCE = "readDataSource";
+    public static final String READ_JDBC_TEMPLATE = "readJdbcTemplate";
+
+    // shared by the writer, which bumps it, and the read pool's statement caches, which check it
+    private final DataVersion dataVersion = new DataVersion();
+
+    @Bean
+    public DataVersion dataVersion() {
+        return dataVersion;
+    }
+
+    @Bean(destroyMethod = "close")
+    public DuckDBConnection duckDbRootConnection(DataSourceProperties properties) throws SQLException {
+        return DriverManager.getConnection(properties.determineUrl()).unwrap(DuckDBConnection.class);
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public HikariDataSource dataSource(DuckDBConnection duckDbRootConnection, MeterRegistry meterRegistry) {
+        return pool("duckdb-writer", new DuplicatingDataSource(duckDbRootConnection, dataVersion::track), 1, meterRegistry);
+    }
+
+    @Bean(name = READ_DATA_SOURCE, destroyMethod = "close")
+    public HikariDataSource readDataSource(DuckDBConnection duckDbRootConnection,
+                                           DuckDbPoolProperties properties,
+                                           MeterRegistry meterRegistry) {
+        int statementCacheSize = properties.statementCacheSize();
+        DuplicatingDataSource sessions = new DuplicatingDataSource(duckDbRootConnection, statementCacheSize > 0
+                ? connection -> StatementCachingConnection.wrap(connection, statementCacheSize, dataVersion)
+                : UnaryOperator.identity());
+        return pool("duckdb-reader", sessions, properties.effectiveReadPoolSize(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean(name = READ_JDBC_TEMPLATE)
+    public JdbcTemplate readJdbcTemplate(@Qualifier(READ_DATA_SOURCE) DataSource readDataSource) {
+        return new DeadlineJdbcTemplate(readDataSource);
+    }
+
+    /**
+     * Pools start eagerly, so the metrics tracker ({@code hikaricp.connections.*}, including the acquire wait
+     * timer) is set here rather than left to the actuator post-processor. Only the read pool caches prepared
+     * statements: the writer mostly runs one-off DDL and batches, and instead bumps the {@link DataVersion}
+     * that retires cached statements after each of its writes.
+     */
+    private static HikariDataSource pool(String name, DuplicatingDataSource sessions, int size,
+                                         MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setDataSource(sessions);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(1);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Hands out new sessions on the root connection's database, wrapped by {@code wrapper}.
+     */
+    private static final class DuplicatingDataSource extends AbstractDataSource {
+
+        private final DuckDBConnection root;
+        private final UnaryOperator<Connection> wrapper;
+
+        private DuplicatingDataSource(DuckDBConnection root, UnaryOperator<Connection> wrapper) {
+            this.root = root;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrapper.apply(root.duplicate());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public void setLoginTimeout(int timeout) {
+            // in-process database, nothing to time out on
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Connection pools over the single in-process DuckDB instance.
+ *
+ * @param readPoolSize       connections serving API reads; 0 means one per available core
+ * @param statementCacheSize prepared statements kept per read connection; 0 disables the cache
+ */
+@ConfigurationProperties(prefix = "graph.duckdb")
+public record DuckDbPoolProperties(
+        @DefaultValue("0") int readPoolSize,
+        @DefaultValue("64") int statementCacheSize
+) {
+    public int effectiveReadPoolSize() {
+        return readPoolSize > 0 ? readPoolSize : Runtime.getRuntime().availableProcessors();
+    }
+}
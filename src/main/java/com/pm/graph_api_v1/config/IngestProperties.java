@@ -0,0 +1,16 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Bulk ingestion settings.
+ *
+ * @param baseDir the only directory ingestion sources may be read from; request paths are resolved against it
+ */
+@ConfigurationProperties(prefix = "graph.ingest")
+public record IngestProperties(
+        @DefaultValue("./data/ingest") Path baseDir
+) {}
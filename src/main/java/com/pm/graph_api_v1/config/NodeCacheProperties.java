@@ -0,0 +1,20 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Node attribute cache in front of {@code findNodesByIds}.
+ *
+ * @param enabled        when false every lookup goes to DuckDB
+ * @param maxWeightBytes approximate heap budget, entries are weighed by their estimated size
+ * @param ttl            time to live after an entry is loaded
+ */
+@ConfigurationProperties(prefix = "graph.cache.nodes")
+public record NodeCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("67108864") long maxWeightBytes,
+        @DefaultValue("10m") Duration ttl
+) {}
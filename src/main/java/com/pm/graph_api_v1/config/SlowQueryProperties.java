@@ -0,0 +1,24 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Slow-query log of the DuckDB repository.
+ *
+ * @param enabled        when false queries are not timed at all
+ * @param threshold      queries running at least this long are recorded
+ * @param capacity       size of the ring buffer; the oldest entries are overwritten
+ * @param explain        re-run recorded queries with {@code EXPLAIN ANALYZE} in the background and keep the plan
+ * @param explainTimeout deadline of one {@code EXPLAIN ANALYZE} run
+ */
+@ConfigurationProperties(prefix = "graph.slow-query")
+public record SlowQueryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("250ms") Duration threshold,
+        @DefaultValue("100") int capacity,
+        @DefaultValue("false") boolean explain,
+        @DefaultValue("30s") Duration explainTimeout
+) {}
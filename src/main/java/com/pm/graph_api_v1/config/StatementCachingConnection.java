@@ -0,0 +1,172 @@
+package com.pm.graph_api_v1.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Keeps closed prepared statements of one physical connection for reuse, so a hot query is parsed,
+ * bound and planned by DuckDB once per connection instead of on every call.
+ * <p>
+ * {@code prepareStatement(sql)} checks out an idle statement with the same SQL (or prepares a new one);
+ * {@code close()} clears its parameters and puts it back, evicting the least recently used one beyond
+ * {@code capacity}. DuckDB closes a statement itself when its execution fails or is cancelled, and such
+ * statements are dropped instead of returned. Prepared statements survive catalog changes such as the
+ * staging table swap of an ingest: DuckDB rebinds them on the next execution. They do not survive data
+ * changes, whose statistics DuckDB only picks up when preparing, so statements prepared before the
+ * writer's last commit ({@link DataVersion}) are dropped too.
+ * <p>
+ * The wrapper sits under the pool, so the statements outlive borrows and are closed with the connection.
+ */
+final class StatementCachingConnection {
+
+    private final Connection target;
+    private final int capacity;
+    private final DataVersion dataVersion;
+    // idle statements by SQL, least recently used first
+    private final LinkedHashMap<String, Prepared> idle;
+
+    private StatementCachingConnection(Connection target, int capacity, DataVersion dataVersion) {
+        this.target = target;
+        this.capacity = capacity;
+        this.dataVersion = dataVersion;
+        this.idle = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    static Connection wrap(Connection target, int capacity, DataVersion dataVersion) {
+        StatementCachingConnection cache = new StatementCachingConnection(target, capacity, dataVersion);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "prepareStatement":
+                            if (args.length == 1) {
+                                return cache.checkOut((String) args[0]);
+                            }
+                            break;
+                        case "close":
+                            cache.closeIdle();
+                            break;
+                        default:
+                            break;
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private PreparedStatement checkOut(String sql) throws SQLException {
+        Prepared prepared;
+        synchronized (this) {
+            prepared = idle.remove(sql);
+        }
+        if (prepared != null && prepared.version != dataVersion.current()) {
+            prepared.statement.close();
+            prepared = null;
+        }
+        if (prepared == null) {
+            // read the version first: a commit racing with the prepare leaves the statement stale, not current
+            long version = dataVersion.current();
+            prepared = new Prepared(target.prepareStatement(sql), version);
+        }
+        return returningOnClose(sql, prepared);
+    }
+
+    private void checkIn(String sql, Prepared prepared) throws SQLException {
+        PreparedStatement statement = prepared.statement;
+        if (statement.isClosed()) {
+            return;
+        }
+        if (prepared.version != dataVersion.current()) {
+            statement.close();
+            return;
+        }
+        try {
+            statement.clearParameters();
+        } catch (SQLException e) {
+            statement.close();
+            return;
+        }
+        List<PreparedStatement> evicted = new ArrayList<>(1);
+        synchronized (this) {
+            Prepared previous = idle.putIfAbsent(sql, prepared);
+            if (previous != null) {
+                // the same SQL was checked out twice; one idle copy is enough
+                evicted.add(statement);
+            } else if (idle.size() > capacity) {
+                var eldest = idle.entrySet().iterator();
+                evicted.add(eldest.next().getValue().statement);
+                eldest.remove();
+            }
+        }
+        for (PreparedStatement statementToClose : evicted) {
+            statementToClose.close();
+        }
+    }
+
+    private void closeIdle() {
+        List<Prepared> statements;
+        synchronized (this) {
+            statements = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        for (Prepared prepared : statements) {
+            try {
+                prepared.statement.close();
+            } catch (SQLException ignored) {
+                // the connection is closing anyway
+            }
+        }
+    }
+
+    /**
+     * A fresh wrapper per checkout, so a second {@code close()} from the pool cannot return the statement twice.
+     */
+    private PreparedStatement returningOnClose(String sql, Prepared prepared) {
+        PreparedStatement statement = prepared.statement;
+        boolean[] returned = new boolean[1];
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                checkIn(sql, prepared);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || statement.isClosed();
+                        default:
+                            break;
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    /**
+     * @param version {@link DataVersion} the statement was prepared at
+     */
+    private record Prepared(PreparedStatement statement, long version) {
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
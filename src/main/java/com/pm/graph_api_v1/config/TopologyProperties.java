@@ -0,0 +1,25 @@
+package com.pm.graph_api_v1.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-memory adjacency (CSR) settings.
+ *
+ * @param enabled            when false, shortest-path falls back to the recursive SQL query
+ * @param compactionInterval how often live edits kept as an overlay are folded into a freshly built CSR
+ * @param supernodeDegree    nodes with more edges (in and out) are not passed through by shortest path and not
+ *                           expanded further by expand; 0 turns this off
+ * @param weightAttrs        numeric edge attributes extracted into in-memory weights on load, usable as
+ *                           {@code weightAttr} of a weighted shortest path
+ */
+@ConfigurationProperties(prefix = "graph.topology")
+public record TopologyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5m") Duration compactionInterval,
+        @DefaultValue("100000") int supernodeDegree,
+        @DefaultValue List<String> weightAttrs
+) {}
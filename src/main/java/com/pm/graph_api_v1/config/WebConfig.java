@@ -0,0 +1,40 @@
+package com.pm.graph_api_v1.config;
+
+import com.pm.graph_api_v1.concurrency.DbAdmissionInterceptor;
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.concurrency.RequestDeadlineInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RequestDeadlineInterceptor requestDeadlineInterceptor;
+    private final DbAdmissionInterceptor dbAdmissionInterceptor;
+
+    public WebConfig(RequestDeadlineInterceptor requestDeadlineInterceptor, DbAdmissionInterceptor dbAdmissionInterceptor) {
+        this.requestDeadlineInterceptor = requestDeadlineInterceptor;
+        this.dbAdmissionInterceptor = dbAdmissionInterceptor;
+    }
+
+    /**
+     * Picked up by the auto-configured {@code applicationTaskExecutor}, which also runs streaming bodies.
+     */
+    @Bean
+    public TaskDecorator deadlineTaskDecorator() {
+        return Deadline::propagate;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // /health and admin endpoints stay outside deadlines and admission control;
+        // the deadline goes first so that waiting for a permit counts against it
+        registry.addInterceptor(requestDeadlineInterceptor).addPathPatterns("/api/v1/graph/**");
+        // bulk resolve reads its whole body first and takes the permit itself
+        registry.addInterceptor(dbAdmissionInterceptor).addPathPatterns("/api/v1/graph/**")
+                .excludePathPatterns("/api/v1/graph/resolve/bulk");
+    }
+}
@@ -0,0 +1,90 @@
+package com.pm.graph_api_v1.controller;
+
+import com.pm.graph_api_v1.api.dto.admin.CacheStatsDto;
+import com.pm.graph_api_v1.api.dto.admin.GraphDeltaReportDto;
+import com.pm.graph_api_v1.api.dto.admin.GraphDeltaRequest;
+import com.pm.graph_api_v1.api.dto.admin.IngestReportDto;
+import com.pm.graph_api_v1.api.dto.admin.IngestRequest;
+import com.pm.graph_api_v1.api.dto.admin.SlowQueryDto;
+import com.pm.graph_api_v1.ingest.GraphIngestService;
+import com.pm.graph_api_v1.metrics.SlowQueryLog;
+import com.pm.graph_api_v1.repository.CachingGraphRepository;
+import com.pm.graph_api_v1.service.GraphDeltaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@Tag(name = "Admin", description = "Operational endpoints: caches, bulk ingestion, live edits.")
+public class GraphAdminController {
+
+    private final CachingGraphRepository cachingGraphRepository;
+    private final GraphIngestService graphIngestService;
+    private final GraphDeltaService graphDeltaService;
+    private final SlowQueryLog slowQueryLog;
+
+    public GraphAdminController(CachingGraphRepository cachingGraphRepository,
+                                GraphIngestService graphIngestService,
+                                GraphDeltaService graphDeltaService,
+                                SlowQueryLog slowQueryLog) {
+        this.cachingGraphRepository = cachingGraphRepository;
+        this.graphIngestService = graphIngestService;
+        this.graphDeltaService = graphDeltaService;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @GetMapping("/cache/nodes")
+    @Operation(summary = "Node cache stats", description = "Hit/miss/eviction counters of the node attribute cache.")
+    public CacheStatsDto nodeCacheStats() {
+        return cachingGraphRepository.nodeCacheStats();
+    }
+
+    @DeleteMapping("/cache/nodes")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Invalidate node cache", description = "Drops every cached node.")
+    public void invalidateNodeCache() {
+        cachingGraphRepository.invalidateAllNodes();
+    }
+
+    @GetMapping("/slow-queries")
+    @Operation(
+            summary = "Slow DuckDB queries",
+            description = "Queries slower than graph.slow-query.threshold, newest first: SQL, parameter types, rows, "
+                    + "duration and, with graph.slow-query.explain, the EXPLAIN ANALYZE plan."
+    )
+    public List<SlowQueryDto> slowQueries() {
+        return slowQueryLog.entries();
+    }
+
+    @DeleteMapping("/slow-queries")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Clear slow queries", description = "Drops every recorded slow query.")
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+
+    @PostMapping("/ingest")
+    @Operation(
+            summary = "Bulk ingest",
+            description = "Replaces nodes/edges/node_lookup with Parquet, CSV or NDJSON files from graph.ingest.base-dir. "
+                    + "Tables are loaded into staging and swapped in atomically; reads are served throughout."
+    )
+    public IngestReportDto ingest(@Valid @RequestBody IngestRequest req) {
+        return graphIngestService.ingest(req);
+    }
+
+    @PostMapping("/delta")
+    @Operation(
+            summary = "Live graph edits",
+            description = "Upserts/deletes nodes and adds/removes edges. Changes are committed to DuckDB and applied "
+                    + "to the in-memory graph immediately, without a full reload."
+    )
+    public GraphDeltaReportDto delta(@Valid @RequestBody GraphDeltaRequest req) {
+        return graphDeltaService.apply(req);
+    }
+}
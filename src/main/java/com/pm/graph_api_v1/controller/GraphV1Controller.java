@@ -3,30 +3,88 @@ package com.pm.graph_api_v1.controller;
 import com.pm.graph_api_v1.api.dto.graph.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.graph_api_v1.exeption.DeadlineExceededException;
+import com.pm.graph_api_v1.service.BulkResolveService;
 import com.pm.graph_api_v1.service.GraphExploreService;
+import com.pm.graph_api_v1.service.GraphStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/v1/graph")
 @Tag(name = "Graph", description = "Resolve identifiers, 1-hop expansion, shortest path.")
 public class GraphV1Controller {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+
     private final GraphExploreService graphExploreService;
+    private final BulkResolveService bulkResolveService;
+    private final ObjectMapper objectMapper;
 
-    public GraphV1Controller(GraphExploreService graphExploreService) {
+    public GraphV1Controller(GraphExploreService graphExploreService,
+                             BulkResolveService bulkResolveService,
+                             ObjectMapper objectMapper) {
         this.graphExploreService = graphExploreService;
+        this.bulkResolveService = bulkResolveService;
+        this.objectMapper = objectMapper;
     }
 
-    @PostMapping("/one-hop")
+    @PostMapping(value = "/one-hop", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
             summary = "1-hop expansion",
-            description = "Expands outgoing edges for seeds or identifiers (ids/phoneNos/partyRks; also phone_no/party_rk)."
+            description = "Expands edges of seeds or identifiers (ids/phoneNos/partyRks; also phone_no/party_rk). "
+                    + "direction picks out-edges (out, default), in-edges (in) or both; each page is ordered by "
+                    + "neighbor id."
     )
     public GraphResponse oneHop(@Valid @RequestBody OneHopRequest req) {
         return graphExploreService.oneHop(req);
     }
 
+    @PostMapping(value = "/one-hop", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "1-hop expansion (NDJSON stream)",
+            description = "Same request as /one-hop with Accept: application/x-ndjson. Emits edge lines while DuckDB "
+                    + "returns rows, then node, page and a final end line carrying nextCursor. A stream cut by the "
+                    + "request deadline ends with an error line (code DEADLINE_EXCEEDED) instead."
+    )
+    public ResponseEntity<StreamingResponseBody> oneHopStream(@Valid @RequestBody OneHopRequest req) {
+        GraphStream stream = graphExploreService.streamOneHop(req);
+        StreamingResponseBody body = out -> {
+            try (NdjsonGraphStreamWriter writer = new NdjsonGraphStreamWriter(objectMapper, out)) {
+                try {
+                    stream.writeTo(writer);
+                } catch (DeadlineExceededException e) {
+                    writer.error(DEADLINE_EXCEEDED, e.getMessage());
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @PostMapping("/expand")
+    @Operation(
+            summary = "k-hop expansion",
+            description = "Expands outgoing edges up to depth hops from seeds or identifiers, capped by fanOut per node "
+                    + "and maxNodes overall. hops maps every returned node to its distance from the nearest seed."
+    )
+    public ExpandResponse expand(@Valid @RequestBody ExpandRequest req) {
+        return graphExploreService.expand(req);
+    }
+
     @PostMapping("/resolve")
     @Operation(
             summary = "Resolve identifiers",
@@ -36,10 +94,45 @@ public class GraphV1Controller {
         return graphExploreService.resolve(req);
     }
 
+    @PostMapping(value = "/resolve/bulk", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Operation(
+            summary = "Bulk resolve",
+            description = "Resolves up to 1M identifiers from an NDJSON ({\"kind\":\"phone_no\",\"value\":\"...\"}) or CSV "
+                    + "(kind,value) body. Streams back one {kind, value, nodeId} line per match; unresolved values "
+                    + "come with nodeId = null."
+    )
+    public void resolveBulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        NdjsonGraphStreamWriter writer = new NdjsonGraphStreamWriter(objectMapper, response.getOutputStream());
+        // the body is fully parsed before the first match arrives, so until then a parse error can
+        // still become a regular JSON 400: the content type is set late and the writer is not closed on failure
+        try {
+            bulkResolveService.resolve(request.getInputStream(), csv, match -> {
+                if (response.getContentType() == null) {
+                    response.setContentType(APPLICATION_NDJSON_VALUE);
+                }
+                writer.line(match);
+            });
+        } catch (DeadlineExceededException e) {
+            if (response.getContentType() == null) {
+                throw e;
+            }
+            writer.error(DEADLINE_EXCEEDED, e.getMessage());
+        }
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        writer.close();
+    }
+
     @PostMapping("/shortest-path")
     @Operation(
             summary = "Shortest path",
-            description = "Finds directed shortest path between two node ids with optional edgeKinds and maxHops."
+            description = "Finds the shortest path between two node ids within maxHops, optionally over edgeKinds only. "
+                    + "direction follows edges forward (out, default), backward (in) or either way (both); returned "
+                    + "edges keep their stored orientation. algorithm is bidirectional (default) or bfs, both return "
+                    + "the lexicographically smallest of the shortest routes. With weightAttr, an edge attribute "
+                    + "listed in graph.topology.weight-attrs, the path is chosen by weight instead of hop count: "
+                    + "objective min (default) minimizes the weight sum, max maximizes the smallest edge weight, and "
+                    + "cost carries the result. Unknown weightAttr is rejected with INVALID_PATH_REQUEST."
     )
     public PathResponse shortestPath(@Valid @RequestBody ShortestPathRequest req) {
         return graphExploreService.shortestPath(req);
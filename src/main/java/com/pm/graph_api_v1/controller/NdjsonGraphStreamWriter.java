@@ -0,0 +1,108 @@
+package com.pm.graph_api_v1.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.SeedPageDto;
+import com.pm.graph_api_v1.service.GraphStreamSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes one {@code {"type": ..., "data": ...}} object per line (or a bare value, see {@link #line}). The generator buffers on its own,
+ * so chunks leave the server as the buffer fills rather than once per line.
+ */
+class NdjsonGraphStreamWriter implements GraphStreamSink, Closeable {
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    NdjsonGraphStreamWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void edge(EdgeDto edge) {
+        write("edge", edge);
+    }
+
+    @Override
+    public void node(NodeDto node) {
+        write("node", node);
+    }
+
+    @Override
+    public void page(SeedPageDto page) {
+        write("page", page);
+    }
+
+    @Override
+    public void end(String nextCursor) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "end");
+            generator.writeStringField("nextCursor", nextCursor);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Final {@code {"type":"error","code":...,"message":...}} line of a stream cut short after its first lines
+     * were sent, when the status code can no longer change.
+     */
+    void error(String code, String message) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "error");
+            generator.writeStringField("code", code);
+            generator.writeStringField("message", message);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Bare value line, for streams without the type envelope.
+     */
+    void line(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    private void write(String type, Object data) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            generator.writeFieldName("data");
+            writer.writeValue(generator, data);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
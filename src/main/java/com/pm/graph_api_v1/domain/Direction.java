@@ -1,4 +1,37 @@
 package com.pm.graph_api_v1.domain;
 
-public class Direction {
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Which edges of a node a traversal follows: outgoing ({@code src = node}), incoming ({@code dst = node})
+ * or both, ignoring the edge direction.
+ */
+public enum Direction {
+    OUT,
+    IN,
+    BOTH;
+
+    @JsonCreator
+    public static Direction fromValue(String value) {
+        return value == null ? null : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Direction of the same edges walked from their other end.
+     */
+    public Direction reverse() {
+        return switch (this) {
+            case OUT -> IN;
+            case IN -> OUT;
+            case BOTH -> BOTH;
+        };
+    }
 }
@@ -1,4 +1,7 @@
 package com.pm.graph_api_v1.domain;
 
-public class EdgeKey {
+/**
+ * Directed (src, dst) pair identifying a hop between two nodes.
+ */
+public record EdgeKey(String src, String dst) {
 }
@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.domain;
+
+/**
+ * Edge by (src, dst, kind). In a delta it names an edge to remove, or every kind between the pair when
+ * {@code kind} is null; in a weighted path it is the exact edge taken for a hop.
+ */
+public record EdgeRef(String src, String dst, String kind) {
+}
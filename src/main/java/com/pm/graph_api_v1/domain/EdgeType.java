@@ -1,4 +1,12 @@
 package com.pm.graph_api_v1.domain;
 
-public class EdgeType {
+/**
+ * Entry of the {@code edge_kinds} dictionary: {@code edges.kind} stores the {@code code}, the API speaks the {@code name}.
+ */
+public record EdgeType(int code, String name) {
+
+    /**
+     * Codes are {@code UTINYINT}, like the kind bytes of the in-memory topology.
+     */
+    public static final int MAX_CODES = 256;
 }
@@ -0,0 +1,21 @@
+package com.pm.graph_api_v1.domain;
+
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+
+import java.util.List;
+
+/**
+ * One batch of live graph edits, applied in this order: node deletions (with their lookups and incident
+ * edges), edge removals, node upserts, edge additions. Edges carry a non-blank kind and id.
+ */
+public record GraphDelta(
+        List<String> deleteNodes,
+        List<EdgeRef> removeEdges,
+        List<NodeDto> upsertNodes,
+        List<EdgeDto> addEdges
+) {
+    public boolean touchesEdges() {
+        return !deleteNodes.isEmpty() || !removeEdges.isEmpty() || !addEdges.isEmpty();
+    }
+}
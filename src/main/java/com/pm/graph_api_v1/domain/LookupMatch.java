@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.domain;
+
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+
+/**
+ * One resolved identifier: the input (lookup kind, value) and the node it points to.
+ */
+public record LookupMatch(String lookupKind, String value, NodeDto node) {}
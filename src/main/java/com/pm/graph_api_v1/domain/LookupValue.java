@@ -0,0 +1,6 @@
+package com.pm.graph_api_v1.domain;
+
+/**
+ * Identifier to resolve: lookup kind ({@code id}, {@code phone_no}, {@code party_rk}) and its value.
+ */
+public record LookupValue(String lookupKind, String value) {}
@@ -1,4 +1,8 @@
 package com.pm.graph_api_v1.domain;
 
-public class NodeKey {
+/**
+ * Entry of the {@code node_keys} dictionary: {@code nodes}, {@code edges} and {@code node_lookup} store the
+ * {@code key}, the API speaks the {@code id}.
+ */
+public record NodeKey(long key, String id) {
 }
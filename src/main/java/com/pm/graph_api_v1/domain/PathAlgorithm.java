@@ -0,0 +1,21 @@
+package com.pm.graph_api_v1.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+public enum PathAlgorithm {
+    BFS,
+    BIDIRECTIONAL;
+
+    @JsonCreator
+    public static PathAlgorithm fromValue(String value) {
+        return value == null ? null : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
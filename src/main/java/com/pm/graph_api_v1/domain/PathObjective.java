@@ -0,0 +1,25 @@
+package com.pm.graph_api_v1.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * What a weighted shortest path optimizes: the smallest sum of edge weights ({@code MIN}), or the largest
+ * bottleneck, i.e. the path whose weakest edge is the strongest ({@code MAX}).
+ */
+public enum PathObjective {
+    MIN,
+    MAX;
+
+    @JsonCreator
+    public static PathObjective fromValue(String value) {
+        return value == null ? null : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pm.graph_api_v1.domain;
+
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+
+/**
+ * Edge found from a seed in one-hop pagination. The edge keeps its stored orientation; {@code inbound}
+ * tells whether the seed is its {@code dst}.
+ */
+public record SeedEdge(String seed, EdgeDto edge, boolean inbound) {
+
+    public String neighbor() {
+        return inbound ? edge.src() : edge.dst();
+    }
+}
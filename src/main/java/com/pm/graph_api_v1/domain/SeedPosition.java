@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.domain;
+
+/**
+ * Keyset position of a seed in one-hop pagination: the last returned (neighbor, kind), and whether that
+ * edge was an in-edge of the seed, which only differs between rows of an undirected page.
+ */
+public record SeedPosition(String lastNode, String lastKind, boolean lastInbound) {
+}
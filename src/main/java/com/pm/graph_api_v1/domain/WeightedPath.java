@@ -0,0 +1,13 @@
+package com.pm.graph_api_v1.domain;
+
+import java.util.List;
+
+/**
+ * Vertex ids of a weighted shortest path with its cost: the weight sum for {@link PathObjective#MIN},
+ * the smallest edge weight along the path for {@link PathObjective#MAX}. {@code edges} names the edge taken
+ * for every hop, in its stored orientation, so parallel edges of another kind are not mistaken for it.
+ */
+public record WeightedPath(List<String> vertices, List<EdgeRef> edges, double cost) {
+
+    public static final WeightedPath NONE = new WeightedPath(List.of(), List.of(), 0);
+}
@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.exeption;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.pm.graph_api_v1.exeption;
+
+public class InvalidBulkInputException extends RuntimeException {
+
+    public InvalidBulkInputException(String message) {
+        super(message);
+    }
+
+    public InvalidBulkInputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
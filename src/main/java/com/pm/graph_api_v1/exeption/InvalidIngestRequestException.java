@@ -0,0 +1,12 @@
+package com.pm.graph_api_v1.exeption;
+
+public class InvalidIngestRequestException extends RuntimeException {
+
+    public InvalidIngestRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidIngestRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
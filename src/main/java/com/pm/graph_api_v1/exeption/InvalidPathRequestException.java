@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.exeption;
+
+public class InvalidPathRequestException extends RuntimeException {
+
+    public InvalidPathRequestException(String message) {
+        super(message);
+    }
+}
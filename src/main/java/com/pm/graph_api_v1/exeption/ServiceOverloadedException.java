@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.exeption;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
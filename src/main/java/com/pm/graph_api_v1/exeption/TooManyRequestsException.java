@@ -0,0 +1,8 @@
+package com.pm.graph_api_v1.exeption;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,207 @@
+package com.pm.graph_api_v1.ingest;
+
+import com.pm.graph_api_v1.api.dto.admin.IngestReportDto;
+import com.pm.graph_api_v1.api.dto.admin.IngestRequest;
+import com.pm.graph_api_v1.api.dto.admin.IngestSourceDto;
+import com.pm.graph_api_v1.config.IngestProperties;
+import com.pm.graph_api_v1.exeption.InvalidIngestRequestException;
+import com.pm.graph_api_v1.repository.CachingGraphRepository;
+import com.pm.graph_api_v1.topology.GraphTopologyEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk loads nodes, edges and lookups from Parquet/CSV/NDJSON files.
+ * <p>
+ * Each source is read by DuckDB itself ({@code read_parquet}/{@code read_csv}/{@code read_json}, parallel,
+ * no per-row JDBC traffic) into a {@code *_staging} table. The swap then runs in one transaction: drop the
+ * live table, rename the staging one into place and rebuild its indexes there, because DuckDB cannot rename
+ * a table that already has secondary indexes. Readers on other connections keep seeing the old tables until
+ * the commit, so the API keeps serving throughout.
+ */
+@Service
+public class GraphIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphIngestService.class);
+
+    private final JdbcTemplate jdbc;
+    private final IngestProperties properties;
+    private final GraphTopologyEngine topologyEngine;
+    private final CachingGraphRepository cachingGraphRepository;
+
+    public GraphIngestService(JdbcTemplate jdbc,
+                              IngestProperties properties,
+                              GraphTopologyEngine topologyEngine,
+                              CachingGraphRepository cachingGraphRepository) {
+        this.jdbc = jdbc;
+        this.properties = properties;
+        this.topologyEngine = topologyEngine;
+        this.cachingGraphRepository = cachingGraphRepository;
+    }
+
+    public synchronized IngestReportDto ingest(IngestRequest req) {
+        long started = System.nanoTime();
+        Map<StagedTable, String> readers = new EnumMap<>(StagedTable.class);
+        putReader(readers, StagedTable.NODES, req.nodes());
+        putReader(readers, StagedTable.EDGES, req.edges());
+        putReader(readers, StagedTable.LOOKUPS, req.lookups());
+
+        Map<StagedTable, Long> counts = jdbc.execute((ConnectionCallback<Map<StagedTable, Long>>) connection -> {
+            Map<StagedTable, Long> staged = new EnumMap<>(StagedTable.class);
+            try {
+                for (Map.Entry<StagedTable, String> entry : readers.entrySet()) {
+                    staged.put(entry.getKey(), stage(connection, entry.getKey(), entry.getValue()));
+                }
+                swap(connection, staged.keySet());
+            } finally {
+                dropStaging(connection, readers.keySet());
+            }
+            return staged;
+        });
+
+        if (counts.containsKey(StagedTable.NODES)) {
+            cachingGraphRepository.invalidateAllNodes();
+        }
+        if (counts.containsKey(StagedTable.EDGES)) {
+            try {
+                topologyEngine.reload();
+            } catch (RuntimeException e) {
+                log.warn("Ingested edges but failed to reload graph topology, keeping the previous snapshot", e);
+            }
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Ingest finished in {} ms: {}", durationMs, counts);
+        return new IngestReportDto(counts.get(StagedTable.NODES), counts.get(StagedTable.EDGES),
+                counts.get(StagedTable.LOOKUPS), durationMs);
+    }
+
+    private void putReader(Map<StagedTable, String> readers, StagedTable table, IngestSourceDto source) {
+        if (source != null) {
+            readers.put(table, reader(source));
+        }
+    }
+
+    /**
+     * @return row count of the filled staging table
+     */
+    private long stage(Connection connection, StagedTable table, String reader) {
+        try (Statement st = connection.createStatement()) {
+            Map<String, String> columns = describe(st, reader);
+            for (String required : table.requiredColumns) {
+                if (!columns.containsKey(required)) {
+                    throw new InvalidIngestRequestException(
+                            table.table + " source has no '" + required + "' column, found " + columns.keySet());
+                }
+            }
+
+            st.execute("DROP TABLE IF EXISTS " + table.stagingTable());
+            st.execute(table.stagingDdl);
+            long started = System.nanoTime();
+            String source = table.normalize(reader, columns);
+            for (String statement : table.prepare(source)) {
+                st.execute(statement);
+            }
+            st.execute("INSERT INTO " + table.stagingTable() + " " + table.project(source));
+            long rows;
+            try (ResultSet rs = st.executeQuery("SELECT count(*) FROM " + table.stagingTable())) {
+                rs.next();
+                rows = rs.getLong(1);
+            }
+            log.info("Staged {} rows into {} in {} ms", rows, table.stagingTable(), (System.nanoTime() - started) / 1_000_000);
+            return rows;
+        } catch (SQLException e) {
+            throw new InvalidIngestRequestException("Failed to load " + table.table + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, String> describe(Statement st, String reader) throws SQLException {
+        Map<String, String> columns = new HashMap<>();
+        try (ResultSet rs = st.executeQuery("DESCRIBE SELECT * FROM " + reader)) {
+            while (rs.next()) {
+                columns.put(rs.getString("column_name").toLowerCase(Locale.ROOT), rs.getString("column_type"));
+            }
+        }
+        return columns;
+    }
+
+    private static void swap(Connection connection, Iterable<StagedTable> tables) throws SQLException {
+        long started = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            for (StagedTable table : tables) {
+                for (String index : table.indexDdl) {
+                    st.execute("DROP INDEX IF EXISTS " + indexName(index));
+                }
+                st.execute("DROP TABLE IF EXISTS " + table.table);
+                st.execute("ALTER TABLE " + table.stagingTable() + " RENAME TO " + table.table);
+                for (String index : table.indexDdl) {
+                    st.execute(index);
+                }
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        log.info("Swapped staged tables in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void dropStaging(Connection connection, Iterable<StagedTable> tables) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            for (StagedTable table : tables) {
+                st.execute("DROP TABLE IF EXISTS " + table.stagingTable());
+            }
+        }
+    }
+
+    /**
+     * Index name out of {@code CREATE INDEX <name> ON ...}.
+     */
+    private static String indexName(String ddl) {
+        return ddl.split("\\s+")[2];
+    }
+
+    /**
+     * DuckDB table function reading the source; the path must stay inside the ingest base directory.
+     */
+    private String reader(IngestSourceDto source) {
+        Path baseDir = properties.baseDir().toAbsolutePath().normalize();
+        Path path = baseDir.resolve(source.path()).normalize();
+        if (!path.startsWith(baseDir)) {
+            throw new InvalidIngestRequestException("Path must stay inside the ingest directory: " + source.path());
+        }
+
+        String format = source.format() != null ? source.format() : formatOf(path.getFileName().toString());
+        String literal = "'" + path.toString().replace("'", "''") + "'";
+        return switch (format) {
+            case "parquet" -> "read_parquet(" + literal + ")";
+            case "csv" -> "read_csv(" + literal + ", header = true)";
+            case "ndjson" -> "read_json(" + literal + ", format = 'newline_delimited')";
+            default -> throw new InvalidIngestRequestException("Unsupported format: " + format);
+        };
+    }
+
+    private static String formatOf(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".parquet")) return "parquet";
+        if (name.endsWith(".csv") || name.endsWith(".csv.gz")) return "csv";
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) return "ndjson";
+        throw new InvalidIngestRequestException("Cannot infer format of '" + fileName + "', pass format explicitly");
+    }
+}
@@ -0,0 +1,185 @@
+package com.pm.graph_api_v1.ingest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tables that can be bulk-loaded: staging DDL (identical to the live schema), the live indexes to
+ * rebuild after the swap, and the projection from an arbitrary source onto the table columns.
+ */
+enum StagedTable {
+
+    NODES("nodes", List.of("id"), """
+            CREATE TABLE nodes_staging (
+                node_key BIGINT NOT NULL,
+                kind VARCHAR NOT NULL,
+                label VARCHAR,
+                attrs JSON,
+                flags VARCHAR[]
+            )""",
+            List.of("CREATE INDEX idx_nodes_key ON nodes(node_key)", "CREATE INDEX idx_nodes_kind ON nodes(kind)")) {
+        @Override
+        List<String> prepare(String source) {
+            return List.of(registerNodeKeys("SELECT id FROM (%s) s".formatted(source)));
+        }
+
+        @Override
+        String project(String source) {
+            return """
+                SELECT k.node_key,
+                       COALESCE(NULLIF(s.kind, ''), CASE WHEN strpos(s.id, ':') > 1 THEN split_part(s.id, ':', 1) ELSE 'entity' END),
+                       s.label, s.attrs, s.flags
+                FROM (%s) s
+                JOIN node_keys k ON k.id = s.id
+                QUALIFY row_number() OVER (PARTITION BY k.node_key) = 1
+                ORDER BY k.node_key
+                """.formatted(source);
+        }
+    },
+
+    EDGES("edges", List.of("src", "dst"), """
+            CREATE TABLE edges_staging (
+                src BIGINT NOT NULL,
+                dst BIGINT NOT NULL,
+                id VARCHAR,
+                kind UTINYINT NOT NULL,
+                attrs JSON,
+                flags VARCHAR[]
+            )""",
+            List.of("CREATE INDEX idx_edges_src_kind_dst ON edges(src, kind, dst)",
+                    "CREATE INDEX idx_edges_dst_kind_src ON edges(dst, kind, src)")) {
+        @Override
+        List<String> prepare(String source) {
+            // new kinds get the next codes; codes of known kinds stay as they are
+            return List.of("""
+                INSERT INTO edge_kinds (code, name)
+                SELECT (SELECT COALESCE(max(code) + 1, 0) FROM edge_kinds) + row_number() OVER (ORDER BY name) - 1, name
+                FROM (
+                    SELECT DISTINCT COALESCE(NULLIF(kind, ''), 'edge') AS name
+                    FROM (%s) s
+                    WHERE src IS NOT NULL AND dst IS NOT NULL
+                ) k
+                WHERE name NOT IN (SELECT name FROM edge_kinds)
+                """.formatted(source),
+                    registerNodeKeys("""
+                        SELECT src FROM (%1$s) s WHERE dst IS NOT NULL
+                        UNION ALL
+                        SELECT dst FROM (%1$s) s WHERE src IS NOT NULL""".formatted(source)));
+        }
+
+        @Override
+        String project(String source) {
+            // sorted like the index, so zonemaps prune src and kind filters;
+            // ids equal to the derived src->dst:kind are left NULL and rebuilt when read
+            return """
+                SELECT sk.node_key, dk.node_key,
+                       NULLIF(NULLIF(s.id, ''), s.src || '->' || s.dst || ':' || s.edge_kind),
+                       k.code, s.attrs, s.flags
+                FROM (SELECT *, COALESCE(NULLIF(kind, ''), 'edge') AS edge_kind FROM (%s) s) s
+                JOIN edge_kinds k ON k.name = s.edge_kind
+                JOIN node_keys sk ON sk.id = s.src
+                JOIN node_keys dk ON dk.id = s.dst
+                ORDER BY sk.node_key, k.code, dk.node_key
+                """.formatted(source);
+        }
+    },
+
+    LOOKUPS("node_lookup", List.of("lookup_kind", "lookup_value", "node_id"), """
+            CREATE TABLE node_lookup_staging (
+                lookup_kind VARCHAR NOT NULL,
+                lookup_value VARCHAR NOT NULL,
+                node_key BIGINT NOT NULL,
+                PRIMARY KEY (lookup_kind, lookup_value, node_key)
+            )""",
+            List.of("CREATE INDEX idx_node_lookup_kind_value ON node_lookup(lookup_kind, lookup_value)")) {
+        @Override
+        List<String> prepare(String source) {
+            return List.of(registerNodeKeys("""
+                    SELECT node_id FROM (%s) s WHERE lookup_kind IS NOT NULL AND lookup_value IS NOT NULL"""
+                    .formatted(source)));
+        }
+
+        @Override
+        String project(String source) {
+            return """
+                SELECT DISTINCT s.lookup_kind, s.lookup_value, k.node_key
+                FROM (%s) s
+                JOIN node_keys k ON k.id = s.node_id
+                WHERE s.lookup_kind IS NOT NULL AND s.lookup_value IS NOT NULL
+                """.formatted(source);
+        }
+    };
+
+    private static final List<String> TEXT_COLUMNS =
+            List.of("id", "src", "dst", "kind", "label", "lookup_kind", "lookup_value", "node_id");
+
+    final String table;
+    final List<String> requiredColumns;
+    final String stagingDdl;
+    final List<String> indexDdl;
+
+    StagedTable(String table, List<String> requiredColumns, String stagingDdl, List<String> indexDdl) {
+        this.table = table;
+        this.requiredColumns = requiredColumns;
+        this.stagingDdl = stagingDdl;
+        this.indexDdl = indexDdl;
+    }
+
+    String stagingTable() {
+        return table + "_staging";
+    }
+
+    /**
+     * Statements to run over the normalized source before {@link #project} fills the staging table,
+     * e.g. registering dictionary entries the projection joins against.
+     */
+    List<String> prepare(String source) {
+        return List.of();
+    }
+
+    /**
+     * Registers the ids selected by {@code ids} (a single column) in {@code node_keys}: ids seen for the first
+     * time get keys after the current maximum, in id order. Keys are never reused, so tables swapped in later
+     * keep matching the ones they replace.
+     */
+    private static String registerNodeKeys(String ids) {
+        return """
+            INSERT INTO node_keys (node_key, id)
+            SELECT (SELECT COALESCE(max(node_key) + 1, 0) FROM node_keys) + row_number() OVER (ORDER BY id) - 1, id
+            FROM (SELECT DISTINCT id FROM (%s) ids(id) WHERE id IS NOT NULL) ids
+            WHERE id NOT IN (SELECT id FROM node_keys)
+            """.formatted(ids);
+    }
+
+    /**
+     * Final SELECT over the normalized source (see {@link #normalize}), in live column order.
+     */
+    abstract String project(String source);
+
+    /**
+     * Maps whatever columns the source has onto the known ones: text columns cast to VARCHAR,
+     * {@code attrs} to JSON, {@code flags} to VARCHAR[] (JSON text arrays are parsed), missing ones as NULL.
+     *
+     * @param columns source column name -> DuckDB type
+     */
+    String normalize(String reader, Map<String, String> columns) {
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (String column : TEXT_COLUMNS) {
+            select.append(columns.containsKey(column) ? "CAST(" + column + " AS VARCHAR)" : "NULL::VARCHAR")
+                    .append(" AS ").append(column).append(", ");
+        }
+        select.append(columns.containsKey("attrs") ? "CAST(attrs AS JSON)" : "NULL::JSON").append(" AS attrs, ");
+
+        String flagsType = columns.get("flags");
+        String flags;
+        if (flagsType == null) {
+            flags = "NULL::VARCHAR[]";
+        } else if (flagsType.endsWith("[]")) {
+            flags = "CAST(flags AS VARCHAR[])";
+        } else {
+            flags = "CAST(CAST(flags AS JSON) AS VARCHAR[])";
+        }
+        select.append(flags).append(" AS flags FROM ").append(reader);
+        return select.toString();
+    }
+}
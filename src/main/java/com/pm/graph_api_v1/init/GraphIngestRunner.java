@@ -0,0 +1,65 @@
+package com.pm.graph_api_v1.init;
+
+import com.pm.graph_api_v1.api.dto.admin.IngestReportDto;
+import com.pm.graph_api_v1.api.dto.admin.IngestRequest;
+import com.pm.graph_api_v1.api.dto.admin.IngestSourceDto;
+import com.pm.graph_api_v1.ingest.GraphIngestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Command-line ingestion, runs before the topology is loaded:
+ * {@code --ingest.nodes=nodes.parquet --ingest.edges=edges/*.parquet --ingest.lookups=lookups.csv}
+ * (paths relative to {@code graph.ingest.base-dir}, format by extension or {@code --ingest.format}).
+ * With {@code --ingest.exit} the application stops after loading instead of starting to serve.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GraphIngestRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphIngestRunner.class);
+
+    private final GraphIngestService graphIngestService;
+    private final ApplicationContext context;
+
+    public GraphIngestRunner(GraphIngestService graphIngestService, ApplicationContext context) {
+        this.graphIngestService = graphIngestService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String format = option(args, "ingest.format");
+        IngestSourceDto nodes = source(args, "ingest.nodes", format);
+        IngestSourceDto edges = source(args, "ingest.edges", format);
+        IngestSourceDto lookups = source(args, "ingest.lookups", format);
+        if (nodes == null && edges == null && lookups == null) {
+            return;
+        }
+
+        IngestReportDto report = graphIngestService.ingest(new IngestRequest(nodes, edges, lookups));
+        log.info("Command-line ingest done: {}", report);
+        if (args.containsOption("ingest.exit")) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private static IngestSourceDto source(ApplicationArguments args, String name, String format) {
+        String path = option(args, name);
+        return path == null ? null : new IngestSourceDto(path, format);
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
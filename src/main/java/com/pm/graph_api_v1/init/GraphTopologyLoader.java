@@ -0,0 +1,34 @@
+package com.pm.graph_api_v1.init;
+
+import com.pm.graph_api_v1.topology.GraphTopologyEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GraphTopologyLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphTopologyLoader.class);
+
+    private final GraphTopologyEngine topologyEngine;
+
+    public GraphTopologyLoader(GraphTopologyEngine topologyEngine) {
+        this.topologyEngine = topologyEngine;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (topologyEngine.isReady()) {
+            // already loaded by a startup ingest
+            return;
+        }
+        try {
+            topologyEngine.reload();
+        } catch (RuntimeException e) {
+            // shortest-path keeps working through SQL until the next successful reload
+            log.warn("Failed to load graph topology, falling back to SQL traversal", e);
+        }
+    }
+}
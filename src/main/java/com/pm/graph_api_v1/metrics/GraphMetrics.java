@@ -0,0 +1,154 @@
+package com.pm.graph_api_v1.metrics;
+
+import com.pm.graph_api_v1.api.dto.graph.RawJson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the graph hot paths, kept in one place so names and tags stay consistent:
+ * <ul>
+ *     <li>{@value #REPOSITORY_CALLS}: every repository call that reaches DuckDB, tagged by {@code method},
+ *     {@code kind_filter} (whether {@code edgeKinds} narrowed the query) and {@code seeds} (input size bucket);</li>
+ *     <li>{@value #REPOSITORY_ROWS}: rows read, by {@code method};</li>
+ *     <li>{@value #OPERATIONS}: {@code GraphExploreService} operations, by {@code operation};</li>
+ *     <li>{@value #JSON_BYTES}: JSON handled per {@code source}: {@code attrs} read from DuckDB and passed through
+ *     as {@link RawJson}, {@code bulk-input} parsed from NDJSON bulk bodies (counted in chars);</li>
+ *     <li>{@value #FALLBACKS}: placeholder nodes and edges built for ids missing from DuckDB, by {@code type};</li>
+ *     <li>{@value #PATHS}: shortest-path outcomes, {@code found} or {@code not_found}.</li>
+ * </ul>
+ * Timers publish percentile histograms, so quantiles can be aggregated across instances.
+ */
+@Component
+public class GraphMetrics {
+
+    public static final String REPOSITORY_CALLS = "graph.repository.calls";
+    public static final String REPOSITORY_ROWS = "graph.repository.rows";
+    public static final String OPERATIONS = "graph.operations";
+    public static final String JSON_BYTES = "graph.json.bytes";
+    public static final String FALLBACKS = "graph.fallbacks";
+    public static final String PATHS = "graph.paths";
+
+    /**
+     * {@code seeds} tag of calls whose input size is unknown up front or meaningless.
+     */
+    public static final int UNSIZED = -1;
+
+    private final Meter.MeterProvider<Timer> repositoryCalls;
+    private final Meter.MeterProvider<Counter> repositoryRows;
+    private final Meter.MeterProvider<Timer> operations;
+    private final Counter attrsBytes;
+    private final Counter bulkInputBytes;
+    private final Counter fallbackNodes;
+    private final Counter fallbackEdges;
+    private final Counter pathsFound;
+    private final Counter pathsNotFound;
+
+    public GraphMetrics(MeterRegistry registry) {
+        this.repositoryCalls = Timer.builder(REPOSITORY_CALLS)
+                .description("DuckDB repository calls")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.repositoryRows = Counter.builder(REPOSITORY_ROWS)
+                .description("Rows read from DuckDB")
+                .withRegistry(registry);
+        this.operations = Timer.builder(OPERATIONS)
+                .description("Graph API operations")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.attrsBytes = jsonBytesCounter(registry, "attrs");
+        this.bulkInputBytes = jsonBytesCounter(registry, "bulk-input");
+        this.fallbackNodes = Counter.builder(FALLBACKS).tag("type", "node").register(registry);
+        this.fallbackEdges = Counter.builder(FALLBACKS).tag("type", "edge").register(registry);
+        this.pathsFound = Counter.builder(PATHS).tag("outcome", "found").register(registry);
+        this.pathsNotFound = Counter.builder(PATHS).tag("outcome", "not_found").register(registry);
+    }
+
+    public Timer repositoryTimer(String method, Collection<String> edgeKinds, int seeds) {
+        boolean kindFilter = edgeKinds != null && !edgeKinds.isEmpty();
+        return repositoryCalls.withTags(Tags.of(
+                "method", method,
+                "kind_filter", Boolean.toString(kindFilter),
+                "seeds", sizeBucket(seeds)));
+    }
+
+    public void rows(String method, long count) {
+        if (count > 0) {
+            repositoryRows.withTag("method", method).increment(count);
+        }
+    }
+
+    public <T> T operation(String operation, Supplier<T> call) {
+        return operations.withTag("operation", operation).record(call);
+    }
+
+    public void operation(String operation, Runnable call) {
+        operations.withTag("operation", operation).record(call);
+    }
+
+    public void attrsRead(long bytes) {
+        if (bytes > 0) {
+            attrsBytes.increment(bytes);
+        }
+    }
+
+    /**
+     * Size of an attrs document as read; the empty placeholder for a missing one counts as nothing.
+     */
+    public static long jsonBytes(RawJson attrs) {
+        return attrs == null || attrs == RawJson.EMPTY_OBJECT ? 0 : attrs.json().length();
+    }
+
+    public void bulkInputParsed(long bytes) {
+        if (bytes > 0) {
+            bulkInputBytes.increment(bytes);
+        }
+    }
+
+    public void fallbackNode() {
+        fallbackNodes.increment();
+    }
+
+    public void fallbackEdge() {
+        fallbackEdges.increment();
+    }
+
+    public void pathFound(boolean found) {
+        (found ? pathsFound : pathsNotFound).increment();
+    }
+
+    /**
+     * Coarse buckets keep the tag cardinality fixed whatever the request sizes are.
+     */
+    static String sizeBucket(int size) {
+        if (size < 0) {
+            return "n/a";
+        }
+        if (size <= 1) {
+            return Integer.toString(size);
+        }
+        if (size <= 10) {
+            return "2-10";
+        }
+        if (size <= 100) {
+            return "11-100";
+        }
+        if (size <= 1000) {
+            return "101-1000";
+        }
+        return "1000+";
+    }
+
+    private static Counter jsonBytesCounter(MeterRegistry registry, String source) {
+        return Counter.builder(JSON_BYTES)
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(registry);
+    }
+}
@@ -0,0 +1,210 @@
+package com.pm.graph_api_v1.metrics;
+
+import com.pm.graph_api_v1.api.dto.admin.SlowQueryDto;
+import com.pm.graph_api_v1.concurrency.DbConcurrencyLimiter;
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.config.ConcurrencyProperties;
+import com.pm.graph_api_v1.config.DuckDbConfig;
+import com.pm.graph_api_v1.config.SlowQueryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Ring buffer of repository queries that ran longer than {@code graph.slow-query.threshold}.
+ * <p>
+ * An entry keeps the SQL, the shapes of the bind parameters (types only, values may be personal data),
+ * the row count, the duration and the error of a failed query. With {@code graph.slow-query.explain} a query
+ * that succeeded is then re-run as {@code EXPLAIN ANALYZE} on a background thread and the profiled plan is added
+ * to the entry; failed and cancelled queries are not re-run. Only one plan is captured at a time and recordings
+ * that arrive meanwhile go without one, and the re-run waits for a {@link DbConcurrencyLimiter} permit like
+ * any request, so a burst of slow queries cannot double the load that caused it.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int MAX_SQL_LENGTH = 4000;
+    // queue limit key of the re-runs, configurable like an endpoint's
+    private static final String EXPLAIN_ENDPOINT = "slow-query-explain";
+
+    private final SlowQueryProperties properties;
+    private final JdbcTemplate jdbc;
+    private final DbConcurrencyLimiter limiter;
+    private final ConcurrencyProperties concurrency;
+    private final long thresholdNanos;
+    private final SlowQueryDto[] entries;
+    private int next;
+    private final AtomicBoolean explaining = new AtomicBoolean();
+    private final ExecutorService explainer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "duckdb-slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlowQueryLog(SlowQueryProperties properties,
+                        @Qualifier(DuckDbConfig.READ_JDBC_TEMPLATE) JdbcTemplate jdbc,
+                        DbConcurrencyLimiter limiter,
+                        ConcurrencyProperties concurrency) {
+        this.properties = properties;
+        this.jdbc = jdbc;
+        this.limiter = limiter;
+        this.concurrency = concurrency;
+        this.thresholdNanos = properties.threshold().toNanos();
+        this.entries = new SlowQueryDto[Math.max(1, properties.capacity())];
+    }
+
+    /**
+     * Runs {@code query} and records it when it is slow, whether it succeeds or fails.
+     *
+     * @param explainable false for SQL that cannot be re-run elsewhere, e.g. one reading a connection-local temp table
+     * @param rows        row count of the result, evaluated after {@code query} has finished
+     */
+    public <T> T time(String operation, String sql, Object[] args, boolean explainable,
+                      Supplier<T> query, ToLongFunction<T> rows) {
+        if (!properties.enabled()) {
+            return query.get();
+        }
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException e) {
+            // a failed or cancelled query is not re-run: its plan would cost as much and could fail the same way
+            record(operation, sql, args, false, -1, System.nanoTime() - started, e.getMessage());
+            throw e;
+        }
+        long elapsed = System.nanoTime() - started;
+        if (elapsed >= thresholdNanos) {
+            record(operation, sql, args, explainable, rows.applyAsLong(result), elapsed, null);
+        }
+        return result;
+    }
+
+    /**
+     * @return recorded queries, newest first
+     */
+    public synchronized List<SlowQueryDto> entries() {
+        List<SlowQueryDto> result = new ArrayList<>(entries.length);
+        for (int i = 1; i <= entries.length; i++) {
+            SlowQueryDto entry = entries[Math.floorMod(next - i, entries.length)];
+            if (entry == null) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        next = 0;
+    }
+
+    private void record(String operation, String sql, Object[] args, boolean explainable,
+                        long rows, long elapsedNanos, String error) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        SlowQueryDto entry = new SlowQueryDto(Instant.now(), operation, truncate(sql), shapes(args), rows,
+                elapsedNanos / 1_000_000, error, null);
+        synchronized (this) {
+            entries[next] = entry;
+            next = (next + 1) % entries.length;
+        }
+        log.warn("Slow DuckDB query {} took {} ms, {} rows", operation, entry.durationMs(), rows);
+        if (properties.explain() && explainable && explaining.compareAndSet(false, true)) {
+            try {
+                explainer.execute(() -> explain(entry, sql, args));
+            } catch (RejectedExecutionException e) {
+                explaining.set(false);
+            }
+        }
+    }
+
+    private void explain(SlowQueryDto entry, String sql, Object[] args) {
+        try {
+            String plan = Deadline.callWith(Deadline.after(properties.explainTimeout()), () -> {
+                if (concurrency.enabled()) {
+                    limiter.acquire(EXPLAIN_ENDPOINT);
+                }
+                try {
+                    StringBuilder text = new StringBuilder();
+                    jdbc.query("EXPLAIN ANALYZE " + sql, rs -> {
+                        text.append(rs.getString(2));
+                    }, args);
+                    return text.toString();
+                } finally {
+                    if (concurrency.enabled()) {
+                        limiter.release();
+                    }
+                }
+            });
+            replace(entry, entry.withPlan(plan));
+        } catch (RuntimeException e) {
+            log.debug("EXPLAIN ANALYZE of a slow query failed", e);
+            replace(entry, entry.withPlan("EXPLAIN ANALYZE failed: " + e.getMessage()));
+        } finally {
+            explaining.set(false);
+        }
+    }
+
+    /**
+     * Swaps in the entry with its plan, unless it has been overwritten in the meantime.
+     */
+    private synchronized void replace(SlowQueryDto entry, SlowQueryDto withPlan) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                entries[i] = withPlan;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parameter types in order with runs of the same type collapsed, e.g. {@code [String×150, Integer]}.
+     */
+    static List<String> shapes(Object[] args) {
+        List<String> shapes = new ArrayList<>();
+        if (args == null) {
+            return shapes;
+        }
+        String current = null;
+        int run = 0;
+        for (Object arg : args) {
+            String type = arg == null ? "null" : arg.getClass().getSimpleName();
+            if (!type.equals(current)) {
+                addShape(shapes, current, run);
+                current = type;
+                run = 0;
+            }
+            run++;
+        }
+        addShape(shapes, current, run);
+        return shapes;
+    }
+
+    private static void addShape(List<String> shapes, String type, int run) {
+        if (type != null) {
+            shapes.add(run == 1 ? type : type + "×" + run);
+        }
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "…";
+    }
+}
@@ -0,0 +1,222 @@
+package com.pm.graph_api_v1.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pm.graph_api_v1.api.dto.admin.CacheStatsDto;
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.ResolveMatchDto;
+import com.pm.graph_api_v1.config.DataVersion;
+import com.pm.graph_api_v1.config.NodeCacheProperties;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.EdgeKey;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.domain.LookupMatch;
+import com.pm.graph_api_v1.domain.LookupValue;
+import com.pm.graph_api_v1.domain.SeedEdge;
+import com.pm.graph_api_v1.domain.SeedPosition;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Decorates the (metered) JDBC repository with a bounded, size-weighted {@link NodeDto} cache.
+ * Only cache misses of {@link #findNodesByIds} reach DuckDB, in one batch.
+ * <p>
+ * A read that races a write may fetch a row the write is about to replace, and put it after the write
+ * invalidated it. Puts are therefore checked against the {@link DataVersion} taken before the fetch and
+ * undone when a write finished in between.
+ */
+@Primary
+@Repository
+public class CachingGraphRepository implements DuckDbGraphRepository {
+
+    private final DuckDbGraphRepository delegate;
+    private final NodeCacheProperties properties;
+    private final DataVersion dataVersion;
+    private final Cache<String, NodeDto> nodes;
+
+    public CachingGraphRepository(MeteredGraphRepository delegate,
+                                  NodeCacheProperties properties,
+                                  DataVersion dataVersion) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.dataVersion = dataVersion;
+        this.nodes = Caffeine.newBuilder()
+                .maximumWeight(properties.maxWeightBytes())
+                .weigher((String id, NodeDto node) -> estimateWeight(node))
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<NodeDto> findNodesByIds(Collection<String> ids) {
+        if (!properties.enabled() || ids == null || ids.isEmpty()) {
+            return delegate.findNodesByIds(ids);
+        }
+        Map<String, NodeDto> cached = nodes.getAllPresent(ids);
+        List<NodeDto> result = new ArrayList<>(ids.size());
+        result.addAll(cached.values());
+        if (cached.size() == ids.size()) {
+            return result;
+        }
+
+        List<String> misses = new ArrayList<>(ids.size() - cached.size());
+        for (String id : ids) {
+            if (!cached.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        long version = dataVersion.current();
+        List<NodeDto> fetched = delegate.findNodesByIds(misses);
+        cacheAll(fetched, version);
+        result.addAll(fetched);
+        return result;
+    }
+
+    @Override
+    public List<NodeDto> findNodesByLookup(String lookupKind, Collection<String> values) {
+        long version = dataVersion.current();
+        List<NodeDto> found = delegate.findNodesByLookup(lookupKind, values);
+        cacheAll(found, version);
+        return found;
+    }
+
+    @Override
+    public List<LookupMatch> resolveAll(Map<String, ? extends Collection<String>> lookups) {
+        long version = dataVersion.current();
+        List<LookupMatch> matches = delegate.resolveAll(lookups);
+        cacheAll(matches.stream().map(LookupMatch::node).toList(), version);
+        return matches;
+    }
+
+    @Override
+    public void resolveBulk(Iterator<LookupValue> inputs, Consumer<ResolveMatchDto> consumer) {
+        delegate.resolveBulk(inputs, consumer);
+    }
+
+    @Override
+    public List<EdgeDto> findOutEdges(String src, String cursor, int limit, Set<String> edgeKinds) {
+        return delegate.findOutEdges(src, cursor, limit, edgeKinds);
+    }
+
+    @Override
+    public List<SeedEdge> findEdgesForSeeds(Map<String, SeedPosition> positions,
+                                            int limitPerSeed,
+                                            Direction direction,
+                                            Set<String> edgeKinds) {
+        return delegate.findEdgesForSeeds(positions, limitPerSeed, direction, edgeKinds);
+    }
+
+    @Override
+    public void streamEdgesForSeeds(Map<String, SeedPosition> positions,
+                                    int limitPerSeed,
+                                    Direction direction,
+                                    Set<String> edgeKinds,
+                                    Consumer<SeedEdge> consumer) {
+        delegate.streamEdgesForSeeds(positions, limitPerSeed, direction, edgeKinds, consumer);
+    }
+
+    @Override
+    public Optional<EdgeDto> findEdge(String src, String dst, Set<String> edgeKinds) {
+        return delegate.findEdge(src, dst, edgeKinds);
+    }
+
+    @Override
+    public Map<EdgeKey, EdgeDto> findEdgesByPairs(List<EdgeKey> pairs, Set<String> edgeKinds) {
+        return delegate.findEdgesByPairs(pairs, edgeKinds);
+    }
+
+    @Override
+    public Map<EdgeRef, EdgeDto> findEdgesByRefs(List<EdgeRef> refs) {
+        return delegate.findEdgesByRefs(refs);
+    }
+
+    @Override
+    public List<String> shortestPathVertices(String from,
+                                             String to,
+                                             int maxHops,
+                                             Direction direction,
+                                             Set<String> edgeKinds) {
+        return delegate.shortestPathVertices(from, to, maxHops, direction, edgeKinds);
+    }
+
+    @Override
+    public void forEachEdge(List<String> weightAttrs, EdgeRowHandler handler) {
+        delegate.forEachEdge(weightAttrs, handler);
+    }
+
+    @Override
+    public Integer edgeKindCode(String kind) {
+        return delegate.edgeKindCode(kind);
+    }
+
+    @Override
+    public void applyDelta(GraphDelta delta) {
+        delegate.applyDelta(delta);
+        nodes.invalidateAll(delta.deleteNodes());
+        for (NodeDto node : delta.upsertNodes()) {
+            nodes.invalidate(node.id());
+        }
+    }
+
+    public void invalidateNodes(Collection<String> ids) {
+        nodes.invalidateAll(ids);
+    }
+
+    public void invalidateAllNodes() {
+        nodes.invalidateAll();
+    }
+
+    public CacheStatsDto nodeCacheStats() {
+        CacheStats stats = nodes.stats();
+        long weight = nodes.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new CacheStatsDto(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                nodes.estimatedSize(), weight);
+    }
+
+    /**
+     * @param version {@link DataVersion} read before {@code found} was fetched
+     */
+    private void cacheAll(List<NodeDto> found, long version) {
+        if (!properties.enabled() || found.isEmpty()) {
+            return;
+        }
+        for (NodeDto node : found) {
+            nodes.put(node.id(), node);
+        }
+        // checked after the puts: a write that invalidated before them has already moved the version
+        if (dataVersion.current() != version) {
+            for (NodeDto node : found) {
+                nodes.invalidate(node.id());
+            }
+        }
+    }
+
+    /**
+     * Rough heap footprint: object headers plus two bytes per char of the string fields.
+     */
+    private static int estimateWeight(NodeDto node) {
+        long weight = 96L + 2L * (length(node.id()) + length(node.kind()) + length(node.label()));
+        if (node.attrs() != null) {
+            weight += 32L + 2L * length(node.attrs().json());
+        }
+        if (node.flags() != null) {
+            for (String flag : node.flags()) {
+                weight += 32L + 2L * length(flag);
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
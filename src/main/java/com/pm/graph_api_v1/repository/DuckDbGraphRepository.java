@@ -2,16 +2,98 @@ package com.pm.graph_api_v1.repository;
 
 import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
 import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.ResolveMatchDto;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.EdgeKey;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.domain.LookupMatch;
+import com.pm.graph_api_v1.domain.LookupValue;
+import com.pm.graph_api_v1.domain.SeedEdge;
+import com.pm.graph_api_v1.domain.SeedPosition;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface DuckDbGraphRepository {
     List<NodeDto> findNodesByIds(Collection<String> ids);
     List<NodeDto> findNodesByLookup(String lookupKind, Collection<String> values);
+
+    /**
+     * Resolves several lookup kinds in one query. Values under {@code "id"} match {@code nodes.id} directly as well
+     * as {@code node_lookup}. Matches come in input order (kinds in map order, then values), one per (input, node).
+     */
+    List<LookupMatch> resolveAll(Map<String, ? extends Collection<String>> lookups);
+
+    /**
+     * Bulk {@link #resolveAll} for inputs too large for bind parameters: the inputs are appended to a
+     * connection-local temp table and joined in one pass. Every input yields at least one row (a null
+     * {@code nodeId} when nothing matched), in input order.
+     */
+    void resolveBulk(Iterator<LookupValue> inputs, Consumer<ResolveMatchDto> consumer);
     List<EdgeDto> findOutEdges(String src, String cursor, int limit, Set<String> edgeKinds);
+
+    /**
+     * Multi-seed {@link #findOutEdges} in any {@link Direction}: up to {@code limitPerSeed} edges per seed,
+     * ordered by seed, neighbor id, kind (out-edges before in-edges on ties), each seed starting after its
+     * own position (null position = first page).
+     */
+    List<SeedEdge> findEdgesForSeeds(Map<String, SeedPosition> positions, int limitPerSeed, Direction direction,
+                                     Set<String> edgeKinds);
+
+    /**
+     * Same rows as {@link #findEdgesForSeeds}, handed to {@code consumer} one by one while the
+     * result set is read instead of being collected into a list.
+     */
+    void streamEdgesForSeeds(Map<String, SeedPosition> positions, int limitPerSeed, Direction direction,
+                             Set<String> edgeKinds, Consumer<SeedEdge> consumer);
     Optional<EdgeDto> findEdge(String src, String dst, Set<String> edgeKinds);
-    List<String> shortestPathVertices(String from, String to, int maxHops, Set<String> edgeKinds);
+
+    /**
+     * Batch variant of {@link #findEdge}: one edge per pair (smallest kind wins), pairs without a match are absent.
+     */
+    Map<EdgeKey, EdgeDto> findEdgesByPairs(List<EdgeKey> pairs, Set<String> edgeKinds);
+
+    /**
+     * Edges by exact (src, dst, kind); refs without a stored edge are absent.
+     */
+    Map<EdgeRef, EdgeDto> findEdgesByRefs(List<EdgeRef> refs);
+
+    /**
+     * Vertex ids of the shortest path following edges in {@code direction}, or an empty list when there is none.
+     */
+    List<String> shortestPathVertices(String from, String to, int maxHops, Direction direction, Set<String> edgeKinds);
+
+    /**
+     * Streams (src, dst, kind) of every edge ordered by src, dst and kind code, with the numeric values of
+     * {@code weightAttrs} taken from the edge attrs.
+     */
+    void forEachEdge(List<String> weightAttrs, EdgeRowHandler handler);
+
+    /**
+     * @return {@code edge_kinds} code of the kind, which orders edges of one (src, dst) pair, or null when
+     *         no edge of that kind was ever stored
+     */
+    Integer edgeKindCode(String kind);
+
+    /**
+     * Persists a batch of live edits. Adding an edge replaces any existing edge with the same (src, dst, kind);
+     * upserting a node replaces its row as a whole.
+     */
+    void applyDelta(GraphDelta delta);
+
+    @FunctionalInterface
+    interface EdgeRowHandler {
+        /**
+         * @param kindCode {@code edge_kinds} code of {@code kind}
+         * @param weights  one value per requested attribute, NaN when it is missing or not a number;
+         *                 the array is reused for the next row
+         */
+        void accept(String src, String dst, int kindCode, String kind, float[] weights);
+    }
 }
@@ -1,30 +1,70 @@
 package com.pm.graph_api_v1.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
 import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.RawJson;
+import com.pm.graph_api_v1.api.dto.graph.ResolveMatchDto;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.EdgeKey;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.domain.LookupMatch;
+import com.pm.graph_api_v1.domain.LookupValue;
+import com.pm.graph_api_v1.domain.NodeKey;
+import com.pm.graph_api_v1.domain.SeedEdge;
+import com.pm.graph_api_v1.domain.SeedPosition;
+import org.duckdb.DuckDBAppender;
+import com.pm.graph_api_v1.config.DataVersion;
+import com.pm.graph_api_v1.config.DuckDbConfig;
+import com.pm.graph_api_v1.metrics.SlowQueryLog;
+import org.duckdb.DuckDBConnection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Repository
 public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
 
-    private static final TypeReference<Map<String, Object>> ATTRS_TYPE = new TypeReference<>() {};
-    private static final TypeReference<List<String>> FLAGS_TYPE = new TypeReference<>() {};
+    // edges.kind holds the edge_kinds code of the kind name
+    private static final String KIND_CODE = "(SELECT code FROM edge_kinds WHERE name = ?)";
+    // nodes, edges and node_lookup refer to nodes by their node_keys key; string ids only appear at the API boundary
+    private static final String NODE_KEY = "(SELECT node_key FROM node_keys WHERE id = ?)";
+    private static final String NODE_COLUMNS = "k.id, n.kind, n.label, n.attrs, n.flags";
+    // rows take the kind name from the same snapshot as the edge, so a kind committed mid-query still resolves
+    private static final String EDGE_COLUMNS = "e.id, sk.id AS src, dk.id AS dst, e.kind, ek.name AS kind_name, e.attrs, e.flags";
+    private static final String EDGE_IDS = """
+            JOIN node_keys sk ON sk.node_key = e.src
+            JOIN node_keys dk ON dk.node_key = e.dst
+            JOIN edge_kinds ek ON ek.code = e.kind
+            """;
 
+    // queries go through the read pool, edits through the single writer connection
     private final JdbcTemplate jdbc;
-    private final ObjectMapper objectMapper;
-
-    public DuckDbGraphRepositoryJdbc(JdbcTemplate jdbc, ObjectMapper objectMapper) {
+    private final JdbcTemplate writeJdbc;
+    private final SlowQueryLog slowQueries;
+    private final EdgeKindDictionary kindDictionary;
+
+    public DuckDbGraphRepositoryJdbc(@Qualifier(DuckDbConfig.READ_JDBC_TEMPLATE) JdbcTemplate jdbc,
+                                     JdbcTemplate writeJdbc,
+                                     SlowQueryLog slowQueries,
+                                     DataVersion dataVersion) {
         this.jdbc = jdbc;
-        this.objectMapper = objectMapper;
+        this.writeJdbc = writeJdbc;
+        this.slowQueries = slowQueries;
+        this.kindDictionary = new EdgeKindDictionary(jdbc, dataVersion);
     }
 
     @Override
@@ -32,8 +72,13 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
         if (ids == null || ids.isEmpty()) {
             return List.of();
         }
-        String sql = "SELECT id, kind, label, attrs, flags FROM nodes WHERE id IN (" + placeholders(ids.size()) + ")";
-        return jdbc.query(sql, nodeRowMapper(), ids.toArray());
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + NODE_COLUMNS + """
+
+            FROM node_keys k
+            JOIN nodes n ON n.node_key = k.node_key
+            WHERE k.id IN (""" + padded(ids, args) + ")";
+        return query("findNodesByIds", sql, nodeRowMapper(), args.toArray());
     }
 
     @Override
@@ -41,15 +86,110 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
         if (values == null || values.isEmpty()) {
             return List.of();
         }
+        List<Object> args = new ArrayList<>();
+        args.add(lookupKind);
         String sql = """
-            SELECT DISTINCT n.id, n.kind, n.label, n.attrs, n.flags
+            SELECT DISTINCT k.id, n.kind, n.label, n.attrs, n.flags
             FROM node_lookup l
-            JOIN nodes n ON n.id = l.node_id
-            WHERE l.lookup_kind = ? AND l.lookup_value IN (""" + placeholders(values.size()) + ")";
+            JOIN nodes n ON n.node_key = l.node_key
+            JOIN node_keys k ON k.node_key = n.node_key
+            WHERE l.lookup_kind = ? AND l.lookup_value IN (""" + padded(values, args) + ")";
+        return query("findNodesByLookup", sql, nodeRowMapper(), args.toArray());
+    }
+
+    @Override
+    public List<LookupMatch> resolveAll(Map<String, ? extends Collection<String>> lookups) {
         List<Object> args = new ArrayList<>();
-        args.add(lookupKind);
-        args.addAll(values);
-        return jdbc.query(sql, nodeRowMapper(), args.toArray());
+        int ord = 0;
+        for (Map.Entry<String, ? extends Collection<String>> entry : lookups.entrySet()) {
+            for (String value : entry.getValue()) {
+                args.add(ord++);
+                args.add(entry.getKey());
+                args.add(value);
+            }
+        }
+        if (ord == 0) {
+            return List.of();
+        }
+
+        String values = paddedRows(ord, "(?::INTEGER, ?::VARCHAR, ?::VARCHAR)", args);
+        String sql = "WITH input(ord, lookup_kind, lookup_value) AS (VALUES " + values + ")" + """
+
+            SELECT i.ord, i.lookup_kind, i.lookup_value, k.id, n.kind, n.label, n.attrs, n.flags
+            FROM (
+                SELECT i.ord, k.node_key
+                FROM input i
+                JOIN node_keys k ON i.lookup_kind = 'id' AND k.id = i.lookup_value
+                UNION
+                SELECT i.ord, l.node_key
+                FROM input i
+                JOIN node_lookup l ON l.lookup_kind = i.lookup_kind AND l.lookup_value = i.lookup_value
+            ) m
+            JOIN input i ON i.ord = m.ord
+            JOIN nodes n ON n.node_key = m.node_key
+            JOIN node_keys k ON k.node_key = m.node_key
+            ORDER BY i.ord, k.id
+            """;
+
+        return query("resolveAll", sql, (rs, rowNum) -> new LookupMatch(
+                rs.getString("lookup_kind"), rs.getString("lookup_value"), mapNode(rs)), args.toArray());
+    }
+
+    @Override
+    public void resolveBulk(Iterator<LookupValue> inputs, Consumer<ResolveMatchDto> consumer) {
+        String sql = """
+            SELECT i.lookup_kind, i.lookup_value, k.id AS node_id
+            FROM bulk_lookup i
+            LEFT JOIN (
+                SELECT i.ord, n.node_key
+                FROM bulk_lookup i
+                JOIN node_keys k ON i.lookup_kind = 'id' AND k.id = i.lookup_value
+                JOIN nodes n ON n.node_key = k.node_key
+                UNION
+                SELECT i.ord, n.node_key
+                FROM bulk_lookup i
+                JOIN node_lookup l ON l.lookup_kind = i.lookup_kind AND l.lookup_value = i.lookup_value
+                JOIN nodes n ON n.node_key = l.node_key
+            ) m ON m.ord = i.ord
+            LEFT JOIN node_keys k ON k.node_key = m.node_key
+            ORDER BY i.ord, k.id
+            """;
+        long[] rows = new long[1];
+        // the statement reads a connection-local temp table, so it cannot be explained on another connection;
+        // the recorded duration includes loading the inputs
+        slowQueries.time("resolveBulk", sql, null, false, () -> jdbc.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement st = connection.createStatement()) {
+                st.execute("CREATE OR REPLACE TEMP TABLE bulk_lookup (ord BIGINT, lookup_kind VARCHAR, lookup_value VARCHAR)");
+            }
+            try {
+                long ord = 0;
+                // temp tables are found through the default schema on the search path
+                try (DuckDBAppender appender = connection.unwrap(DuckDBConnection.class)
+                        .createAppender(DuckDBConnection.DEFAULT_SCHEMA, "bulk_lookup")) {
+                    while (inputs.hasNext()) {
+                        LookupValue input = inputs.next();
+                        appender.beginRow();
+                        appender.append(ord++);
+                        appender.append(input.lookupKind());
+                        appender.append(input.value());
+                        appender.endRow();
+                    }
+                }
+
+                try (Statement st = connection.createStatement();
+                     ResultSet rs = st.executeQuery(sql)) {
+                    while (rs.next()) {
+                        rows[0]++;
+                        consumer.accept(new ResolveMatchDto(rs.getString(1), rs.getString(2), rs.getString(3)));
+                    }
+                }
+            } finally {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("DROP TABLE IF EXISTS bulk_lookup");
+                }
+            }
+            return null;
+        }), ignored -> rows[0]);
     }
 
     @Override
@@ -58,18 +198,108 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
         args.add(src);
         args.add(cursor);
 
-        StringBuilder sql = new StringBuilder("""
-            SELECT id, src, dst, kind, attrs, flags
-            FROM edges
-            WHERE src = ? AND dst > ?
-            """);
+        // pages follow the dst id rather than its key, so the cursor stays an id
+        StringBuilder sql = new StringBuilder("SELECT " + EDGE_COLUMNS + " FROM edges e " + EDGE_IDS
+                + "WHERE e.src = " + NODE_KEY + " AND dk.id > ?");
 
         appendKindFilter(sql, args, edgeKinds);
 
-        sql.append(" ORDER BY dst LIMIT ?");
+        sql.append(" ORDER BY dk.id LIMIT ?");
         args.add(limit);
 
-        return jdbc.query(sql.toString(), edgeRowMapper(), args.toArray());
+        return query("findOutEdges", sql.toString(), edgeRowMapper(), args.toArray());
+    }
+
+    @Override
+    public List<SeedEdge> findEdgesForSeeds(Map<String, SeedPosition> positions,
+                                            int limitPerSeed,
+                                            Direction direction,
+                                            Set<String> edgeKinds) {
+        if (positions == null || positions.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>(positions.size() * 4 + 1);
+        String sql = seedEdgesSql(positions, limitPerSeed, direction, edgeKinds, args);
+        return query("findEdgesForSeeds", sql, (rs, rowNum) -> mapSeedEdge(rs), args.toArray());
+    }
+
+    @Override
+    public void streamEdgesForSeeds(Map<String, SeedPosition> positions,
+                                    int limitPerSeed,
+                                    Direction direction,
+                                    Set<String> edgeKinds,
+                                    Consumer<SeedEdge> consumer) {
+        if (positions == null || positions.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(positions.size() * 4 + 1);
+        String sql = seedEdgesSql(positions, limitPerSeed, direction, edgeKinds, args);
+        query("streamEdgesForSeeds", sql, rs -> {
+            consumer.accept(mapSeedEdge(rs));
+        }, args.toArray());
+    }
+
+    private String seedEdgesSql(Map<String, SeedPosition> positions,
+                                int limitPerSeed,
+                                Direction direction,
+                                Set<String> edgeKinds,
+                                List<Object> args) {
+        kindDictionary.refreshIfStale();
+        positions.forEach((seed, position) -> {
+            args.add(seed);
+            args.add(position == null ? null : position.lastNode());
+            args.add(position == null ? null : kindDictionary.code(position.lastKind()));
+            args.add(position != null && position.lastInbound());
+        });
+
+        String values = paddedRows(positions.size(), "(?::VARCHAR, ?::VARCHAR, ?::UTINYINT, ?::BOOLEAN)", args);
+        StringBuilder sql = new StringBuilder("WITH seeds(seed, after_node, after_kind, after_inbound) AS (VALUES "
+                + values + ")\nSELECT * FROM (\n");
+        if (direction != Direction.IN) {
+            sql.append("""
+                SELECT e.id, sk.id AS src, dk.id AS dst, e.kind, ek.name AS kind_name, e.attrs, e.flags, s.seed,
+                       dk.id AS neighbor, false AS inbound
+                FROM seeds s
+                JOIN node_keys sk ON sk.id = s.seed
+                JOIN edges e ON e.src = sk.node_key
+                JOIN node_keys dk ON dk.node_key = e.dst
+                JOIN edge_kinds ek ON ek.code = e.kind
+                WHERE (s.after_node IS NULL
+                       OR dk.id > s.after_node
+                       OR (dk.id = s.after_node AND e.kind > s.after_kind))
+                """);
+            appendKindFilter(sql, args, edgeKinds);
+        }
+        if (direction == Direction.BOTH) {
+            sql.append("\nUNION ALL\n");
+        }
+        if (direction != Direction.OUT) {
+            // in-edges go through idx_edges_dst_kind_src; an undirected page lists a self-loop once, as an out-edge
+            sql.append("""
+                SELECT e.id, sk.id AS src, dk.id AS dst, e.kind, ek.name AS kind_name, e.attrs, e.flags, s.seed,
+                       sk.id AS neighbor, true AS inbound
+                FROM seeds s
+                JOIN node_keys dk ON dk.id = s.seed
+                JOIN edges e ON e.dst = dk.node_key
+                JOIN node_keys sk ON sk.node_key = e.src
+                JOIN edge_kinds ek ON ek.code = e.kind
+                WHERE (s.after_node IS NULL
+                       OR sk.id > s.after_node
+                       OR (sk.id = s.after_node AND (e.kind > s.after_kind
+                           OR (e.kind = s.after_kind AND NOT s.after_inbound))))
+                """);
+            if (direction == Direction.BOTH) {
+                sql.append(" AND e.src <> e.dst");
+            }
+            appendKindFilter(sql, args, edgeKinds);
+        }
+        sql.append("\n) e");
+
+        // edges are joined by key, pages still follow the (neighbor id, kind) order the topology expands in
+        sql.append(" QUALIFY row_number() OVER (PARTITION BY seed ORDER BY neighbor, kind, inbound) <= ?");
+        sql.append(" ORDER BY seed, neighbor, kind, inbound");
+        args.add(limitPerSeed);
+        return sql.toString();
     }
 
     @Override
@@ -78,16 +308,13 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
         args.add(src);
         args.add(dst);
 
-        StringBuilder sql = new StringBuilder("""
-            SELECT id, src, dst, kind, attrs, flags
-            FROM edges
-            WHERE src = ? AND dst = ?
-            """);
+        StringBuilder sql = new StringBuilder("SELECT " + EDGE_COLUMNS + " FROM edges e " + EDGE_IDS
+                + "WHERE e.src = " + NODE_KEY + " AND e.dst = " + NODE_KEY);
 
         appendKindFilter(sql, args, edgeKinds);
-        sql.append(" ORDER BY kind LIMIT 1");
+        sql.append(" ORDER BY e.kind LIMIT 1");
 
-        List<EdgeDto> edges = jdbc.query(sql.toString(), edgeRowMapper(), args.toArray());
+        List<EdgeDto> edges = query("findEdge", sql.toString(), edgeRowMapper(), args.toArray());
         if (edges.isEmpty()) {
             return Optional.empty();
         }
@@ -95,66 +322,147 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
     }
 
     @Override
-    public List<String> shortestPathVertices(String from, String to, int maxHops, Set<String> edgeKinds) {
+    public Map<EdgeKey, EdgeDto> findEdgesByPairs(List<EdgeKey> pairs, Set<String> edgeKinds) {
+        if (pairs == null || pairs.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> args = new ArrayList<>(pairs.size() * 2);
+        for (EdgeKey pair : pairs) {
+            args.add(pair.src());
+            args.add(pair.dst());
+        }
+
+        String values = paddedRows(pairs.size(), "(?::VARCHAR, ?::VARCHAR)", args);
+        StringBuilder sql = new StringBuilder("WITH pairs(src, dst) AS (VALUES " + values + ")" + """
+
+            SELECT e.id, p.src, p.dst, e.kind, ek.name AS kind_name, e.attrs, e.flags
+            FROM pairs p
+            JOIN node_keys sk ON sk.id = p.src
+            JOIN node_keys dk ON dk.id = p.dst
+            JOIN edges e ON e.src = sk.node_key AND e.dst = dk.node_key
+            """);
+
+        // the kind filter lands in the JOIN condition
+        appendKindFilter(sql, args, edgeKinds);
+        sql.append(" JOIN edge_kinds ek ON ek.code = e.kind");
+        sql.append(" QUALIFY row_number() OVER (PARTITION BY e.src, e.dst ORDER BY e.kind) = 1");
+
+        Map<EdgeKey, EdgeDto> edges = new HashMap<>();
+        query("findEdgesByPairs", sql.toString(), rs -> {
+            EdgeDto edge = mapEdge(rs);
+            edges.put(new EdgeKey(edge.src(), edge.dst()), edge);
+        }, args.toArray());
+        return edges;
+    }
+
+    @Override
+    public Map<EdgeRef, EdgeDto> findEdgesByRefs(List<EdgeRef> refs) {
+        if (refs == null || refs.isEmpty()) {
+            return Map.of();
+        }
+        kindDictionary.refreshIfStale();
+        List<Object> args = new ArrayList<>(refs.size() * 3);
+        for (EdgeRef ref : refs) {
+            args.add(ref.src());
+            args.add(ref.dst());
+            // a kind that was never stored binds NULL and matches nothing
+            args.add(kindDictionary.code(ref.kind()));
+        }
+
+        String values = paddedRows(refs.size(), "(?::VARCHAR, ?::VARCHAR, ?::UTINYINT)", args);
+        String sql = "WITH refs(src, dst, kind) AS (VALUES " + values + ")" + """
+
+            SELECT e.id, r.src, r.dst, e.kind, ek.name AS kind_name, e.attrs, e.flags
+            FROM refs r
+            JOIN node_keys sk ON sk.id = r.src
+            JOIN node_keys dk ON dk.id = r.dst
+            JOIN edges e ON e.src = sk.node_key AND e.dst = dk.node_key AND e.kind = r.kind
+            JOIN edge_kinds ek ON ek.code = e.kind
+            """;
+
+        Map<EdgeRef, EdgeDto> edges = new HashMap<>();
+        query("findEdgesByRefs", sql, rs -> {
+            EdgeDto edge = mapEdge(rs);
+            edges.put(new EdgeRef(edge.src(), edge.dst(), edge.kind()), edge);
+        }, args.toArray());
+        return edges;
+    }
+
+    @Override
+    public List<String> shortestPathVertices(String from,
+                                             String to,
+                                             int maxHops,
+                                             Direction direction,
+                                             Set<String> edgeKinds) {
         int hops = Math.max(1, Math.min(maxHops, 20));
 
-        String baseFilter = "";
-        String recursiveFilter = "";
         List<Object> args = new ArrayList<>();
-        args.add(to);
         args.add(from);
-
-        if (edgeKinds != null && !edgeKinds.isEmpty()) {
-            baseFilter = " AND kind IN (" + placeholders(edgeKinds.size()) + ")";
-            recursiveFilter = " AND e.kind IN (" + placeholders(edgeKinds.size()) + ")";
+        args.add(to);
+        // arcs(a, b): the edges as the walk follows them; an undirected walk sees every edge both ways
+        List<String> arcs = new ArrayList<>(2);
+        if (direction != Direction.IN) {
+            arcs.add("SELECT src AS a, dst AS b FROM edges WHERE TRUE" + kindPredicate("kind", edgeKinds, args));
         }
-
-        if (edgeKinds != null && !edgeKinds.isEmpty()) {
-            args.addAll(edgeKinds);
+        if (direction != Direction.OUT) {
+            arcs.add("SELECT dst AS a, src AS b FROM edges WHERE TRUE" + kindPredicate("kind", edgeKinds, args));
         }
-        args.add(to);
         args.add(hops + 1);
-        if (edgeKinds != null && !edgeKinds.isEmpty()) {
-            args.addAll(edgeKinds);
-        }
-        args.add(to);
 
+        // the walk runs on node keys; reached paths are spelled out as ids, so ties break as in the topology
         String sql = """
-            WITH RECURSIVE paths(startNode, endNode, path, endReached) AS (
+            WITH RECURSIVE ends(fromKey, toKey) AS (
+              SELECT (SELECT node_key FROM node_keys WHERE id = ?), (SELECT node_key FROM node_keys WHERE id = ?)
+            ),
+            arcs(a, b) AS (
+            """ + String.join("\n  UNION ALL\n", arcs) + """
+
+            ),
+            paths(startNode, endNode, path, endReached) AS (
               SELECT
-                src AS startNode,
-                dst AS endNode,
-                [src, dst] AS path,
-                (dst = ?) AS endReached
-              FROM edges
-              WHERE src = ?""" + baseFilter + """
+                a AS startNode,
+                b AS endNode,
+                [a, b] AS path,
+                (b = ends.toKey) AS endReached
+              FROM arcs, ends
+              WHERE a = ends.fromKey
 
               UNION ALL
 
               SELECT
                 paths.startNode AS startNode,
-                e.dst AS endNode,
-                array_append(paths.path, e.dst) AS path,
-                max(CASE WHEN e.dst = ? THEN 1 ELSE 0 END)
+                arcs.b AS endNode,
+                array_append(paths.path, arcs.b) AS path,
+                max(CASE WHEN arcs.b = ends.toKey THEN 1 ELSE 0 END)
                   OVER (ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING) AS endReached
               FROM paths
-              JOIN edges e ON paths.endNode = e.src
+              JOIN arcs ON paths.endNode = arcs.a
+              CROSS JOIN ends
               WHERE
                 NOT EXISTS (
                   FROM paths previous_paths
-                  WHERE list_contains(previous_paths.path, e.dst)
+                  WHERE list_contains(previous_paths.path, arcs.b)
                 )
                 AND paths.endReached = 0
-                AND length(paths.path) <= ?""" + recursiveFilter + """
+                AND length(paths.path) <= ?
+            ),
+            reached AS (
+              SELECT row_number() OVER () AS pathNo, path
+              FROM paths, ends
+              WHERE endNode = ends.toKey
             )
-            SELECT path
-            FROM paths
-            WHERE endNode = ?
+            SELECT list(k.id ORDER BY r.pos) AS path
+            FROM (
+              SELECT pathNo, unnest(path) AS nodeKey, generate_subscripts(path, 1) AS pos
+              FROM reached
+            ) r
+            JOIN node_keys k ON k.node_key = r.nodeKey
+            GROUP BY r.pathNo
             ORDER BY length(path), path
             LIMIT 1
             """;
 
-        return jdbc.query(sql, ps -> {
+        return slowQueries.time("shortestPathVertices", sql, args.toArray(), true, () -> jdbc.query(sql, ps -> {
             for (int i = 0; i < args.size(); i++) {
                 ps.setObject(i + 1, args.get(i));
             }
@@ -178,15 +486,277 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
                         .toList();
             }
             return List.of(raw.toString());
+        }), path -> path.isEmpty() ? 0 : 1);
+    }
+
+    @Override
+    public void forEachEdge(List<String> weightAttrs, EdgeRowHandler handler) {
+        // each weight is addressed by a JSON pointer, so attribute names need no quoting; TRY_CAST turns
+        // strings that are not numbers, booleans and nested values into NULL
+        StringBuilder sql = new StringBuilder("SELECT sk.id, dk.id, e.kind, ek.name");
+        List<Object> args = new ArrayList<>(weightAttrs.size());
+        for (String attr : weightAttrs) {
+            sql.append(", TRY_CAST(json_extract_string(e.attrs, ?) AS FLOAT)");
+            args.add("/" + attr.replace("~", "~0").replace("/", "~1"));
+        }
+        sql.append("""
+
+            FROM edges e
+            JOIN node_keys sk ON sk.node_key = e.src
+            JOIN node_keys dk ON dk.node_key = e.dst
+            JOIN edge_kinds ek ON ek.code = e.kind
+            ORDER BY sk.id, dk.id, e.kind
+            """);
+        float[] weights = new float[weightAttrs.size()];
+        query("forEachEdge", sql.toString(), rs -> {
+            for (int i = 0; i < weights.length; i++) {
+                float weight = rs.getFloat(5 + i);
+                weights[i] = rs.wasNull() ? Float.NaN : weight;
+            }
+            handler.accept(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getString(4), weights);
+        }, args.toArray());
+    }
+
+    @Override
+    public Integer edgeKindCode(String kind) {
+        kindDictionary.refreshIfStale();
+        return kindDictionary.code(kind);
+    }
+
+    @Override
+    public void applyDelta(GraphDelta delta) {
+        writeJdbc.execute((ConnectionCallback<Void>) connection -> {
+            inTransaction(connection, () -> applyDelta(connection, delta));
+            if (!delta.addEdges().isEmpty()) {
+                kindDictionary.refresh(connection);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs every statement of the delta in the caller's transaction, so a failing row leaves the tables untouched.
+     * Replaced node rows are deleted and inserted again, which the plain (non-unique) node_key index allows
+     * within one transaction.
+     */
+    private void applyDelta(Connection connection, GraphDelta delta) throws SQLException {
+        // ids that are written get keys; ids that are only deleted or unlinked are looked up and skipped when unknown
+        registerNodeKeys(connection, writtenIds(delta));
+        Map<String, Long> keys = nodeKeys(connection, deltaIds(delta));
+        List<String> deleteNodes = delta.deleteNodes().stream().filter(keys::containsKey).toList();
+        List<EdgeRef> removeEdges = delta.removeEdges().stream()
+                .filter(edge -> keys.containsKey(edge.src()) && keys.containsKey(edge.dst()))
+                .toList();
+        // the last upsert of an id wins, as if the rows were written one after another
+        Map<String, NodeDto> upserts = new LinkedHashMap<>();
+        delta.upsertNodes().forEach(node -> upserts.put(node.id(), node));
+        List<NodeDto> upsertNodes = List.copyOf(upserts.values());
+        // likewise the last added edge of a (src, dst, kind) wins, and only that row is inserted
+        Map<EdgeRef, EdgeDto> additions = new LinkedHashMap<>();
+        delta.addEdges().forEach(edge -> additions.put(new EdgeRef(edge.src(), edge.dst(), edge.kind()), edge));
+        List<EdgeDto> addEdges = List.copyOf(additions.values());
+
+        batch(connection, "DELETE FROM node_lookup WHERE node_key = ?",
+                deleteNodes, (ps, id) -> ps.setLong(1, keys.get(id)));
+        batch(connection, "DELETE FROM edges WHERE src = ? OR dst = ?", deleteNodes, (ps, id) -> {
+            ps.setLong(1, keys.get(id));
+            ps.setLong(2, keys.get(id));
+        });
+        batch(connection, "DELETE FROM nodes WHERE node_key = ?",
+                deleteNodes, (ps, id) -> ps.setLong(1, keys.get(id)));
+        batch(connection, "DELETE FROM edges WHERE src = ? AND dst = ? AND (?::VARCHAR IS NULL OR kind = " + KIND_CODE + ")",
+                removeEdges, (ps, edge) -> {
+                    ps.setLong(1, keys.get(edge.src()));
+                    ps.setLong(2, keys.get(edge.dst()));
+                    ps.setString(3, edge.kind());
+                    ps.setString(4, edge.kind());
+                });
+        batch(connection, "DELETE FROM nodes WHERE node_key = ?",
+                upsertNodes, (ps, node) -> ps.setLong(1, keys.get(node.id())));
+        batch(connection, "INSERT INTO nodes (node_key, kind, label, attrs, flags) VALUES (?, ?, ?, ?::JSON, ?::JSON::VARCHAR[])",
+                upsertNodes, (ps, node) -> {
+                    ps.setLong(1, keys.get(node.id()));
+                    ps.setString(2, node.kind());
+                    ps.setString(3, node.label());
+                    ps.setString(4, node.attrs() == null ? null : node.attrs().json());
+                    ps.setString(5, jsonArray(node.flags()));
+                });
+        // codes are appended in name order after the current maximum; UTINYINT caps them at 256 kinds
+        List<String> newKinds = addEdges.stream().map(EdgeDto::kind).distinct().sorted().toList();
+        batch(connection, """
+                INSERT INTO edge_kinds (code, name)
+                SELECT (SELECT COALESCE(max(code) + 1, 0) FROM edge_kinds), ?::VARCHAR
+                WHERE NOT EXISTS (SELECT 1 FROM edge_kinds WHERE name = ?)""", newKinds, (ps, kind) -> {
+            ps.setString(1, kind);
+            ps.setString(2, kind);
+        });
+        batch(connection, "DELETE FROM edges WHERE src = ? AND dst = ? AND kind = " + KIND_CODE, List.copyOf(additions.keySet()), (ps, edge) -> {
+            ps.setLong(1, keys.get(edge.src()));
+            ps.setLong(2, keys.get(edge.dst()));
+            ps.setString(3, edge.kind());
+        });
+        batch(connection, "INSERT INTO edges (src, dst, id, kind, attrs, flags) VALUES (?, ?, ?, " + KIND_CODE + ", ?::JSON, ?::JSON::VARCHAR[])",
+                addEdges, (ps, edge) -> {
+                    ps.setLong(1, keys.get(edge.src()));
+                    ps.setLong(2, keys.get(edge.dst()));
+                    // the derived src->dst:kind id is not stored, mapEdge rebuilds it
+                    String id = edge.id();
+                    ps.setString(3, id.equals(derivedEdgeId(edge.src(), edge.dst(), edge.kind())) ? null : id);
+                    ps.setString(4, edge.kind());
+                    ps.setString(5, edge.attrs() == null ? null : edge.attrs().json());
+                    ps.setString(6, jsonArray(edge.flags()));
+                });
+    }
+
+    /**
+     * Ids the delta writes rows for: upserted nodes and both ends of added edges.
+     */
+    private static Set<String> writtenIds(GraphDelta delta) {
+        Set<String> ids = new HashSet<>();
+        delta.upsertNodes().forEach(node -> ids.add(node.id()));
+        delta.addEdges().forEach(edge -> {
+            ids.add(edge.src());
+            ids.add(edge.dst());
+        });
+        return ids;
+    }
+
+    private static Set<String> deltaIds(GraphDelta delta) {
+        Set<String> ids = writtenIds(delta);
+        ids.addAll(delta.deleteNodes());
+        delta.removeEdges().forEach(edge -> {
+            ids.add(edge.src());
+            ids.add(edge.dst());
         });
+        return ids;
+    }
+
+    /**
+     * Registers the ids never seen before: they get keys after the current maximum, in id order,
+     * with one statement for the whole batch.
+     */
+    private static void registerNodeKeys(Connection connection, Collection<String> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO node_keys (node_key, id)
+                SELECT (SELECT COALESCE(max(node_key) + 1, 0) FROM node_keys) + row_number() OVER (ORDER BY id) - 1, id
+                FROM (SELECT DISTINCT unnest(?::JSON::VARCHAR[]) AS id) ids
+                WHERE id NOT IN (SELECT id FROM node_keys)""")) {
+            ps.setString(1, jsonArray(ids));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Keys of the registered ones among {@code ids}; unknown ids are absent.
+     */
+    private static Map<String, Long> nodeKeys(Connection connection, Collection<String> ids) throws SQLException {
+        Map<String, Long> keys = new HashMap<>();
+        if (ids.isEmpty()) {
+            return keys;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT node_key, id FROM node_keys WHERE id IN (SELECT unnest(?::JSON::VARCHAR[]))")) {
+            ps.setString(1, jsonArray(ids));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    NodeKey key = new NodeKey(rs.getLong(1), rs.getString(2));
+                    keys.put(key.id(), key.key());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static void inTransaction(Connection connection, SqlAction action) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            action.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static <T> void batch(Connection connection, String sql, List<T> rows, RowBinder<T> binder) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (T row : rows) {
+                binder.bind(ps, row);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    /**
+     * JSON array text for a {@code ?::JSON::VARCHAR[]} parameter; the driver cannot bind arrays directly.
+     */
+    private static String jsonArray(Collection<String> values) {
+        if (values == null) {
+            return null;
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (String value : values) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"');
+            JsonStringEncoder.getInstance().quoteAsString(value, json);
+            json.append('"');
+        }
+        return json.append(']').toString();
+    }
+
+    private <T> List<T> query(String operation, String sql, RowMapper<T> mapper, Object... args) {
+        return slowQueries.time(operation, sql, args, true, () -> jdbc.query(sql, mapper, args), List::size);
+    }
+
+    private void query(String operation, String sql, RowCallbackHandler handler, Object... args) {
+        long[] rows = new long[1];
+        slowQueries.time(operation, sql, args, true, () -> {
+            jdbc.query(sql, rs -> {
+                rows[0]++;
+                handler.processRow(rs);
+            }, args);
+            return null;
+        }, ignored -> rows[0]);
     }
 
     private void appendKindFilter(StringBuilder sql, List<Object> args, Set<String> edgeKinds) {
+        sql.append(kindPredicate("e.kind", edgeKinds, args));
+    }
+
+    /**
+     * Kind filter as an integer predicate on the dictionary codes; kinds that were never stored match nothing.
+     */
+    private String kindPredicate(String column, Set<String> edgeKinds, List<Object> args) {
         if (edgeKinds == null || edgeKinds.isEmpty()) {
-            return;
+            return "";
         }
-        sql.append(" AND kind IN (").append(placeholders(edgeKinds.size())).append(")");
-        args.addAll(edgeKinds);
+        kindDictionary.refreshIfStale();
+        List<Integer> codes = kindDictionary.codes(edgeKinds);
+        if (codes.isEmpty()) {
+            return " AND FALSE";
+        }
+        return " AND " + column + " IN (" + padded(codes, args) + ")";
     }
 
     private RowMapper<NodeDto> nodeRowMapper() {
@@ -197,12 +767,16 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
         return (rs, rowNum) -> mapEdge(rs);
     }
 
+    private SeedEdge mapSeedEdge(ResultSet rs) throws SQLException {
+        return new SeedEdge(rs.getString("seed"), mapEdge(rs), rs.getBoolean("inbound"));
+    }
+
     private NodeDto mapNode(ResultSet rs) throws SQLException {
         String id = rs.getString("id");
         String kind = rs.getString("kind");
         String label = rs.getString("label");
-        Map<String, Object> attrs = parseAttrs(rs.getString("attrs"));
-        Set<String> flags = parseFlags(rs.getString("flags"));
+        RawJson attrs = RawJson.of(rs.getString("attrs"));
+        Set<String> flags = readFlags(rs.getArray("flags"));
 
         if (kind == null || kind.isBlank()) {
             kind = detectKind(id);
@@ -218,41 +792,74 @@ public class DuckDbGraphRepositoryJdbc implements DuckDbGraphRepository {
         String id = rs.getString("id");
         String src = rs.getString("src");
         String dst = rs.getString("dst");
-        String kind = rs.getString("kind");
-        Map<String, Object> attrs = parseAttrs(rs.getString("attrs"));
-        Set<String> flags = parseFlags(rs.getString("flags"));
+        String kind = rs.getString("kind_name");
+        RawJson attrs = RawJson.of(rs.getString("attrs"));
+        Set<String> flags = readFlags(rs.getArray("flags"));
 
-        if (kind == null || kind.isBlank()) {
-            kind = "edge";
-        }
         if (id == null || id.isBlank()) {
-            id = src + "->" + dst + ":" + kind;
+            id = derivedEdgeId(src, dst, kind);
         }
 
         return new EdgeDto(id, src, dst, kind, attrs, flags);
     }
 
-    private Map<String, Object> parseAttrs(String json) {
-        if (json == null || json.isBlank()) {
-            return Map.of();
+    /**
+     * Id of an edge added without one; stored as NULL and rebuilt when read.
+     */
+    private static String derivedEdgeId(String src, String dst, String kind) {
+        return src + "->" + dst + ":" + kind;
+    }
+
+    private static Set<String> readFlags(Array array) throws SQLException {
+        if (array == null) {
+            return Set.of();
         }
-        try {
-            return objectMapper.readValue(json, ATTRS_TYPE);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to parse attrs JSON: " + json, e);
+        Object[] values = (Object[]) array.getArray();
+        if (values == null || values.length == 0) {
+            return Set.of();
         }
+        Set<String> flags = new LinkedHashSet<>(values.length);
+        for (Object value : values) {
+            if (value != null) {
+                flags.add(value.toString());
+            }
+        }
+        return flags;
     }
 
-    private Set<String> parseFlags(String json) {
-        if (json == null || json.isBlank()) {
-            return Set.of();
+    /**
+     * Adds {@code values} to {@code args}, padded to the next power of two by repeating the last one, and returns
+     * the matching placeholders. Input sizes then map onto a handful of statement shapes that the per-connection
+     * statement cache can reuse, instead of one SQL string (and one DuckDB plan) per distinct size.
+     */
+    private static String padded(Collection<?> values, List<Object> args) {
+        int size = bucket(values.size());
+        Object last = null;
+        for (Object value : values) {
+            args.add(value);
+            last = value;
         }
-        try {
-            List<String> flags = objectMapper.readValue(json, FLAGS_TYPE);
-            return new LinkedHashSet<>(flags);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to parse flags JSON: " + json, e);
+        for (int i = values.size(); i < size; i++) {
+            args.add(last);
         }
+        return placeholders(size);
+    }
+
+    /**
+     * {@code VALUES} rows for {@code count} inputs whose arguments are already in {@code args}, padded to the next
+     * power of two with all-NULL rows. NULL keys never satisfy the joins the rows feed, so padding adds no results.
+     */
+    private static String paddedRows(int count, String row, List<Object> args) {
+        int size = bucket(count);
+        int params = (int) row.chars().filter(c -> c == '?').count();
+        for (int i = count * params; i < size * params; i++) {
+            args.add(null);
+        }
+        return String.join(", ", Collections.nCopies(size, row));
+    }
+
+    private static int bucket(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
     }
 
     private static String placeholders(int count) {
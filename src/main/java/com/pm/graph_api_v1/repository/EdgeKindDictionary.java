@@ -0,0 +1,105 @@
+package com.pm.graph_api_v1.repository;
+
+import com.pm.graph_api_v1.config.DataVersion;
+import com.pm.graph_api_v1.domain.EdgeType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the {@code edge_kinds} dictionary, mapping kind names to codes for filters and cursors.
+ * <p>
+ * It is loaded when the repository is built and again by the writer after a delta commits. Other writes
+ * (ingest, statements on the writer connection) move the {@link DataVersion}, and {@link #refreshIfStale()}
+ * reloads before the next query is built; nothing is queried while a result set is open. Codes are never
+ * reused, so a known name never maps to a wrong code, and a name the copy does not know stays unknown (and
+ * matches nothing) until the data version moves. Rows carry their kind name from a join on the table itself.
+ */
+final class EdgeKindDictionary {
+
+    private static final String SELECT_KINDS = "SELECT code, name FROM edge_kinds";
+
+    private final JdbcTemplate jdbc;
+    private final DataVersion dataVersion;
+    private volatile Snapshot snapshot;
+
+    EdgeKindDictionary(JdbcTemplate jdbc, DataVersion dataVersion) {
+        this.jdbc = jdbc;
+        this.dataVersion = dataVersion;
+        this.snapshot = load();
+    }
+
+    /**
+     * Reloads through the read pool when a write happened since the copy was taken.
+     */
+    void refreshIfStale() {
+        if (snapshot.version != dataVersion.current()) {
+            synchronized (this) {
+                if (snapshot.version != dataVersion.current()) {
+                    snapshot = load();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads through the writer's connection right after it committed; no other write can interleave, so the
+     * copy is current as of the version read afterwards.
+     */
+    synchronized void refresh(Connection writer) throws SQLException {
+        Map<String, EdgeType> byName = new HashMap<>();
+        try (Statement st = writer.createStatement();
+             ResultSet rs = st.executeQuery(SELECT_KINDS)) {
+            while (rs.next()) {
+                EdgeType type = new EdgeType(rs.getInt(1), rs.getString(2));
+                byName.put(type.name(), type);
+            }
+        }
+        snapshot = new Snapshot(dataVersion.current(), Map.copyOf(byName));
+    }
+
+    /**
+     * @return code of the kind, or null when no edge of that kind was stored as of the last refresh
+     */
+    Integer code(String name) {
+        EdgeType type = name == null ? null : snapshot.byName.get(name);
+        return type == null ? null : type.code();
+    }
+
+    /**
+     * Codes of the known kinds among {@code names}; unknown ones match no edge and are left out.
+     */
+    List<Integer> codes(Collection<String> names) {
+        Map<String, EdgeType> known = snapshot.byName;
+        List<Integer> codes = new ArrayList<>(names.size());
+        for (String name : names) {
+            EdgeType type = known.get(name);
+            if (type != null) {
+                codes.add(type.code());
+            }
+        }
+        return codes;
+    }
+
+    private Snapshot load() {
+        // the version is read first: a write racing the load leaves the copy marked stale
+        long version = dataVersion.current();
+        Map<String, EdgeType> byName = new HashMap<>();
+        jdbc.query(SELECT_KINDS, rs -> {
+            EdgeType type = new EdgeType(rs.getInt(1), rs.getString(2));
+            byName.put(type.name(), type);
+        });
+        return new Snapshot(version, Map.copyOf(byName));
+    }
+
+    private record Snapshot(long version, Map<String, EdgeType> byName) {
+    }
+}
@@ -0,0 +1,218 @@
+package com.pm.graph_api_v1.repository;
+
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.ResolveMatchDto;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.EdgeKey;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.domain.LookupMatch;
+import com.pm.graph_api_v1.domain.LookupValue;
+import com.pm.graph_api_v1.domain.SeedEdge;
+import com.pm.graph_api_v1.domain.SeedPosition;
+import com.pm.graph_api_v1.metrics.GraphMetrics;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.pm.graph_api_v1.metrics.GraphMetrics.UNSIZED;
+import static com.pm.graph_api_v1.metrics.GraphMetrics.jsonBytes;
+
+/**
+ * Times every call of the JDBC repository and counts the rows and attrs JSON it reads. It sits below
+ * {@link CachingGraphRepository}, so the timers see only the queries that actually reach DuckDB.
+ */
+@Repository
+public class MeteredGraphRepository implements DuckDbGraphRepository {
+
+    private final DuckDbGraphRepository delegate;
+    private final GraphMetrics metrics;
+
+    public MeteredGraphRepository(DuckDbGraphRepositoryJdbc delegate, GraphMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<NodeDto> findNodesByIds(Collection<String> ids) {
+        List<NodeDto> nodes = metrics.repositoryTimer("findNodesByIds", null, size(ids))
+                .record(() -> delegate.findNodesByIds(ids));
+        countNodes("findNodesByIds", nodes);
+        return nodes;
+    }
+
+    @Override
+    public List<NodeDto> findNodesByLookup(String lookupKind, Collection<String> values) {
+        List<NodeDto> nodes = metrics.repositoryTimer("findNodesByLookup", null, size(values))
+                .record(() -> delegate.findNodesByLookup(lookupKind, values));
+        countNodes("findNodesByLookup", nodes);
+        return nodes;
+    }
+
+    @Override
+    public List<LookupMatch> resolveAll(Map<String, ? extends Collection<String>> lookups) {
+        int values = 0;
+        if (lookups != null) {
+            for (Collection<String> kindValues : lookups.values()) {
+                values += kindValues.size();
+            }
+        }
+        List<LookupMatch> matches = metrics.repositoryTimer("resolveAll", null, values)
+                .record(() -> delegate.resolveAll(lookups));
+        metrics.rows("resolveAll", matches.size());
+        long bytes = 0;
+        for (LookupMatch match : matches) {
+            bytes += jsonBytes(match.node().attrs());
+        }
+        metrics.attrsRead(bytes);
+        return matches;
+    }
+
+    @Override
+    public void resolveBulk(Iterator<LookupValue> inputs, Consumer<ResolveMatchDto> consumer) {
+        long[] rows = new long[1];
+        try {
+            metrics.repositoryTimer("resolveBulk", null, UNSIZED).record(() -> delegate.resolveBulk(inputs, match -> {
+                rows[0]++;
+                consumer.accept(match);
+            }));
+        } finally {
+            metrics.rows("resolveBulk", rows[0]);
+        }
+    }
+
+    @Override
+    public List<EdgeDto> findOutEdges(String src, String cursor, int limit, Set<String> edgeKinds) {
+        List<EdgeDto> edges = metrics.repositoryTimer("findOutEdges", edgeKinds, 1)
+                .record(() -> delegate.findOutEdges(src, cursor, limit, edgeKinds));
+        countEdges("findOutEdges", edges);
+        return edges;
+    }
+
+    @Override
+    public List<SeedEdge> findEdgesForSeeds(Map<String, SeedPosition> positions,
+                                            int limitPerSeed,
+                                            Direction direction,
+                                            Set<String> edgeKinds) {
+        List<SeedEdge> edges = metrics.repositoryTimer("findEdgesForSeeds", edgeKinds, size(positions))
+                .record(() -> delegate.findEdgesForSeeds(positions, limitPerSeed, direction, edgeKinds));
+        countEdges("findEdgesForSeeds", edges.stream().map(SeedEdge::edge).toList());
+        return edges;
+    }
+
+    @Override
+    public void streamEdgesForSeeds(Map<String, SeedPosition> positions,
+                                    int limitPerSeed,
+                                    Direction direction,
+                                    Set<String> edgeKinds,
+                                    Consumer<SeedEdge> consumer) {
+        // rows, attrs bytes
+        long[] counts = new long[2];
+        try {
+            metrics.repositoryTimer("streamEdgesForSeeds", edgeKinds, size(positions)).record(() ->
+                    delegate.streamEdgesForSeeds(positions, limitPerSeed, direction, edgeKinds, row -> {
+                        counts[0]++;
+                        counts[1] += jsonBytes(row.edge().attrs());
+                        consumer.accept(row);
+                    }));
+        } finally {
+            metrics.rows("streamEdgesForSeeds", counts[0]);
+            metrics.attrsRead(counts[1]);
+        }
+    }
+
+    @Override
+    public Optional<EdgeDto> findEdge(String src, String dst, Set<String> edgeKinds) {
+        Optional<EdgeDto> edge = metrics.repositoryTimer("findEdge", edgeKinds, 1)
+                .record(() -> delegate.findEdge(src, dst, edgeKinds));
+        countEdges("findEdge", edge.map(List::of).orElse(List.of()));
+        return edge;
+    }
+
+    @Override
+    public Map<EdgeKey, EdgeDto> findEdgesByPairs(List<EdgeKey> pairs, Set<String> edgeKinds) {
+        Map<EdgeKey, EdgeDto> edges = metrics.repositoryTimer("findEdgesByPairs", edgeKinds, size(pairs))
+                .record(() -> delegate.findEdgesByPairs(pairs, edgeKinds));
+        countEdges("findEdgesByPairs", edges.values());
+        return edges;
+    }
+
+    @Override
+    public Map<EdgeRef, EdgeDto> findEdgesByRefs(List<EdgeRef> refs) {
+        Map<EdgeRef, EdgeDto> edges = metrics.repositoryTimer("findEdgesByRefs", null, size(refs))
+                .record(() -> delegate.findEdgesByRefs(refs));
+        countEdges("findEdgesByRefs", edges.values());
+        return edges;
+    }
+
+    @Override
+    public List<String> shortestPathVertices(String from,
+                                             String to,
+                                             int maxHops,
+                                             Direction direction,
+                                             Set<String> edgeKinds) {
+        List<String> path = metrics.repositoryTimer("shortestPathVertices", edgeKinds, 1)
+                .record(() -> delegate.shortestPathVertices(from, to, maxHops, direction, edgeKinds));
+        metrics.rows("shortestPathVertices", path.isEmpty() ? 0 : 1);
+        return path;
+    }
+
+    @Override
+    public void forEachEdge(List<String> weightAttrs, EdgeRowHandler handler) {
+        long[] rows = new long[1];
+        try {
+            metrics.repositoryTimer("forEachEdge", null, UNSIZED).record(() -> delegate.forEachEdge(weightAttrs,
+                    (src, dst, kindCode, kind, weights) -> {
+                        rows[0]++;
+                        handler.accept(src, dst, kindCode, kind, weights);
+                    }));
+        } finally {
+            metrics.rows("forEachEdge", rows[0]);
+        }
+    }
+
+    @Override
+    public Integer edgeKindCode(String kind) {
+        return delegate.edgeKindCode(kind);
+    }
+
+    @Override
+    public void applyDelta(GraphDelta delta) {
+        int size = delta.deleteNodes().size() + delta.removeEdges().size()
+                + delta.upsertNodes().size() + delta.addEdges().size();
+        metrics.repositoryTimer("applyDelta", null, size).record(() -> delegate.applyDelta(delta));
+    }
+
+    private void countNodes(String method, List<NodeDto> nodes) {
+        metrics.rows(method, nodes.size());
+        long bytes = 0;
+        for (NodeDto node : nodes) {
+            bytes += jsonBytes(node.attrs());
+        }
+        metrics.attrsRead(bytes);
+    }
+
+    private void countEdges(String method, Collection<EdgeDto> edges) {
+        metrics.rows(method, edges.size());
+        long bytes = 0;
+        for (EdgeDto edge : edges) {
+            bytes += jsonBytes(edge.attrs());
+        }
+        metrics.attrsRead(bytes);
+    }
+
+    private static int size(Collection<?> values) {
+        return values == null ? 0 : values.size();
+    }
+
+    private static int size(Map<?, ?> values) {
+        return values == null ? 0 : values.size();
+    }
+}
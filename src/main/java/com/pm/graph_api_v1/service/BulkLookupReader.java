@@ -0,0 +1,125 @@
+package com.pm.graph_api_v1.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.graph_api_v1.domain.LookupValue;
+import com.pm.graph_api_v1.exeption.InvalidBulkInputException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Lazily parses a bulk resolve body, one identifier per line, so the body is never held in memory.
+ * <ul>
+ *     <li>NDJSON: {@code {"kind":"phone_no","value":"+79995556677"}}</li>
+ *     <li>CSV: {@code phone_no,+79995556677}, an optional {@code kind,value} header line</li>
+ * </ul>
+ * Blank lines are skipped; anything else malformed fails the whole request with its line number.
+ */
+class BulkLookupReader implements Iterator<LookupValue> {
+
+    static final Set<String> LOOKUP_KINDS = Set.of("id", "phone_no", "party_rk");
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectMapper objectMapper;
+    private final int maxValues;
+
+    private LookupValue next;
+    private int lineNo;
+    private int count;
+    private long jsonChars;
+
+    BulkLookupReader(BufferedReader reader, boolean csv, ObjectMapper objectMapper, int maxValues) {
+        this.reader = reader;
+        this.csv = csv;
+        this.objectMapper = objectMapper;
+        this.maxValues = maxValues;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public LookupValue next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        LookupValue value = next;
+        next = null;
+        return value;
+    }
+
+    private LookupValue readNext() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || (csv && lineNo == 1 && line.trim().equalsIgnoreCase("kind,value"))) {
+                    continue;
+                }
+                if (++count > maxValues) {
+                    throw new InvalidBulkInputException("Too many identifiers, at most " + maxValues + " per request");
+                }
+                return csv ? parseCsv(line) : parseJson(line);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LookupValue parseCsv(String line) {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            throw invalid("expected kind,value");
+        }
+        return lookup(line.substring(0, comma), line.substring(comma + 1));
+    }
+
+    /**
+     * @return characters of the NDJSON lines handed to the JSON parser so far
+     */
+    long jsonChars() {
+        return jsonChars;
+    }
+
+    private LookupValue parseJson(String line) {
+        jsonChars += line.length();
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw invalid("not a JSON object");
+        }
+        if (node == null || !node.isObject() || !node.path("kind").isTextual() || !node.path("value").isTextual()) {
+            throw invalid("expected {\"kind\": ..., \"value\": ...}");
+        }
+        return lookup(node.get("kind").asText(), node.get("value").asText());
+    }
+
+    private LookupValue lookup(String kind, String value) {
+        String normalizedKind = kind.trim();
+        String normalizedValue = value.trim();
+        if (!LOOKUP_KINDS.contains(normalizedKind)) {
+            throw invalid("unknown kind '" + normalizedKind + "', expected one of " + LOOKUP_KINDS);
+        }
+        if (normalizedValue.isEmpty()) {
+            throw invalid("empty value");
+        }
+        return new LookupValue(normalizedKind, normalizedValue);
+    }
+
+    private InvalidBulkInputException invalid(String reason) {
+        return new InvalidBulkInputException("Line " + lineNo + ": " + reason);
+    }
+}
@@ -0,0 +1,125 @@
+package com.pm.graph_api_v1.service;
+
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.domain.LookupValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Parsed bulk resolve inputs written to a temp file, so the request body is read to the end before a DuckDB
+ * connection or an admission permit is taken, and is still never held in memory. A slow upload only costs
+ * its own request thread; the deadline is checked while it is read.
+ */
+final class BulkLookupSpool implements AutoCloseable {
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final Path file;
+    private final int count;
+    private DataInputStream in;
+
+    private BulkLookupSpool(Path file, int count) {
+        this.file = file;
+        this.count = count;
+    }
+
+    /**
+     * Reads {@code inputs} to the end; parse errors surface here and leave no file behind.
+     */
+    static BulkLookupSpool drain(Iterator<LookupValue> inputs) {
+        Path file;
+        try {
+            file = Files.createTempFile("bulk-lookup-", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            Deadline deadline = Deadline.current();
+            while (inputs.hasNext()) {
+                LookupValue input = inputs.next();
+                out.writeUTF(input.lookupKind());
+                // values are not bounded by writeUTF's 64K limit
+                byte[] value = input.value().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(value.length);
+                out.write(value);
+                if (++count % DEADLINE_CHECK_INTERVAL == 0) {
+                    deadline.check();
+                }
+            }
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        return new BulkLookupSpool(file, count);
+    }
+
+    /**
+     * Single pass over the spooled values, in body order.
+     */
+    Iterator<LookupValue> values() {
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return read < count;
+            }
+
+            @Override
+            public LookupValue next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    String kind = in.readUTF();
+                    byte[] value = new byte[in.readInt()];
+                    in.readFully(value);
+                    read++;
+                    return new LookupValue(kind, new String(value, StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException ignored) {
+            // the file is deleted either way
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // a leftover temp file is not worth failing the request for
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pm.graph_api_v1.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.graph_api_v1.api.dto.graph.ResolveMatchDto;
+import com.pm.graph_api_v1.concurrency.DbConcurrencyLimiter;
+import com.pm.graph_api_v1.config.ConcurrencyProperties;
+import com.pm.graph_api_v1.metrics.GraphMetrics;
+import com.pm.graph_api_v1.repository.DuckDbGraphRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Resolve mode for screening jobs: the body is parsed line by line into a temp file, then loaded into a DuckDB
+ * temp table, so neither the request nor the response is ever materialized. The admission permit and the
+ * connection are only taken once the body has been read, so a slow upload does not hold either.
+ */
+@Service
+public class BulkResolveService {
+
+    static final int MAX_VALUES = 1_000_000;
+
+    // same key the admission interceptor would use for this endpoint's queue limit
+    private static final String ENDPOINT = "resolve-bulk";
+
+    private final DuckDbGraphRepository repo;
+    private final ObjectMapper objectMapper;
+    private final GraphMetrics metrics;
+    private final DbConcurrencyLimiter limiter;
+    private final ConcurrencyProperties concurrency;
+
+    public BulkResolveService(DuckDbGraphRepository repo,
+                              ObjectMapper objectMapper,
+                              GraphMetrics metrics,
+                              DbConcurrencyLimiter limiter,
+                              ConcurrencyProperties concurrency) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Parse errors surface as {@code InvalidBulkInputException} before the first match reaches {@code consumer}.
+     */
+    public void resolve(InputStream body, boolean csv, Consumer<ResolveMatchDto> consumer) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        BulkLookupReader inputs = new BulkLookupReader(reader, csv, objectMapper, MAX_VALUES);
+        metrics.operation(ENDPOINT, () -> {
+            try (BulkLookupSpool spool = spool(inputs)) {
+                if (concurrency.enabled()) {
+                    limiter.acquire(ENDPOINT);
+                }
+                try {
+                    repo.resolveBulk(spool.values(), consumer);
+                } finally {
+                    if (concurrency.enabled()) {
+                        limiter.release();
+                    }
+                }
+            }
+        });
+    }
+
+    private BulkLookupSpool spool(BulkLookupReader inputs) {
+        try {
+            return BulkLookupSpool.drain(inputs);
+        } finally {
+            metrics.bulkInputParsed(inputs.jsonChars());
+        }
+    }
+}
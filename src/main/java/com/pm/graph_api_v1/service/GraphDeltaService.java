@@ -0,0 +1,104 @@
+package com.pm.graph_api_v1.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pm.graph_api_v1.api.dto.admin.EdgeRefDto;
+import com.pm.graph_api_v1.api.dto.admin.EdgeUpsertDto;
+import com.pm.graph_api_v1.api.dto.admin.GraphDeltaReportDto;
+import com.pm.graph_api_v1.api.dto.admin.GraphDeltaRequest;
+import com.pm.graph_api_v1.api.dto.admin.NodeUpsertDto;
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.RawJson;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.repository.DuckDbGraphRepository;
+import com.pm.graph_api_v1.topology.GraphTopologyEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Live graph edits: each delta is committed to DuckDB first and then patched into the in-memory
+ * topology, so traversals see it right away instead of after the next full reload.
+ * Deltas are serialized, which keeps the snapshot's edit order identical to the commit order.
+ */
+@Service
+public class GraphDeltaService {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphDeltaService.class);
+
+    private final DuckDbGraphRepository repo;
+    private final GraphTopologyEngine topologyEngine;
+
+    public GraphDeltaService(DuckDbGraphRepository repo, GraphTopologyEngine topologyEngine) {
+        this.repo = repo;
+        this.topologyEngine = topologyEngine;
+    }
+
+    public synchronized GraphDeltaReportDto apply(GraphDeltaRequest req) {
+        long started = System.nanoTime();
+        GraphDelta delta = new GraphDelta(
+                map(req.deleteNodes(), String::trim),
+                map(req.removeEdges(), GraphDeltaService::toEdgeRef),
+                map(req.upsertNodes(), GraphDeltaService::toNode),
+                map(req.addEdges(), GraphDeltaService::toEdge)
+        );
+
+        repo.applyDelta(delta);
+        try {
+            topologyEngine.applyDelta(delta);
+        } catch (RuntimeException e) {
+            // the rows are committed; the topology is marked stale and the next compaction reloads it
+            log.warn("Persisted graph delta but failed to apply it to the in-memory topology", e);
+        }
+
+        return new GraphDeltaReportDto(delta.upsertNodes().size(), delta.deleteNodes().size(),
+                delta.addEdges().size(), delta.removeEdges().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static NodeDto toNode(NodeUpsertDto node) {
+        String id = node.id().trim();
+        String kind = isBlank(node.kind()) ? kindOf(id) : node.kind().trim();
+        return new NodeDto(id, kind, node.label(), toJson(node.attrs()), flags(node.flags()));
+    }
+
+    private static EdgeDto toEdge(EdgeUpsertDto edge) {
+        String src = edge.src().trim();
+        String dst = edge.dst().trim();
+        String kind = isBlank(edge.kind()) ? "edge" : edge.kind().trim();
+        String id = isBlank(edge.id()) ? src + "->" + dst + ":" + kind : edge.id().trim();
+        return new EdgeDto(id, src, dst, kind, toJson(edge.attrs()), flags(edge.flags()));
+    }
+
+    private static EdgeRef toEdgeRef(EdgeRefDto edge) {
+        return new EdgeRef(edge.src().trim(), edge.dst().trim(), isBlank(edge.kind()) ? null : edge.kind().trim());
+    }
+
+    /**
+     * Node kind from the id prefix, as the read path does for rows without one.
+     */
+    private static String kindOf(String id) {
+        int idx = id.indexOf(':');
+        return idx > 0 ? id.substring(0, idx) : "entity";
+    }
+
+    private static RawJson toJson(JsonNode attrs) {
+        return attrs == null || attrs.isNull() ? null : RawJson.of(attrs.toString());
+    }
+
+    private static Set<String> flags(Set<String> flags) {
+        return flags == null ? Set.of() : flags;
+    }
+
+    private static <T, R> List<R> map(List<T> values, Function<T, R> mapper) {
+        return values == null ? List.of() : values.stream().map(mapper).toList();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -1,50 +1,108 @@
 package com.pm.graph_api_v1.service;
 
 import com.pm.graph_api_v1.api.dto.graph.*;
+import com.pm.graph_api_v1.concurrency.DbConcurrencyLimiter;
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.EdgeKey;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.LookupMatch;
+import com.pm.graph_api_v1.domain.PathAlgorithm;
+import com.pm.graph_api_v1.domain.PathObjective;
+import com.pm.graph_api_v1.domain.SeedEdge;
+import com.pm.graph_api_v1.domain.SeedPosition;
+import com.pm.graph_api_v1.domain.WeightedPath;
+import com.pm.graph_api_v1.exeption.DeadlineExceededException;
+import com.pm.graph_api_v1.exeption.InvalidCursorException;
+import com.pm.graph_api_v1.exeption.InvalidPathRequestException;
+import com.pm.graph_api_v1.metrics.GraphMetrics;
 import com.pm.graph_api_v1.repository.DuckDbGraphRepository;
+import com.pm.graph_api_v1.topology.GraphTopologyEngine;
+import com.pm.graph_api_v1.topology.Neighborhood;
+import com.pm.graph_api_v1.topology.NodeIdSet;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
 public class GraphExploreService {
 
-    private final DuckDbGraphRepository repo;
+    private static final int NODE_BATCH_SIZE = 500;
+    // below this many seeds per query a round trip costs more than it saves
+    private static final int SEEDS_PER_QUERY = 64;
 
-    public GraphExploreService(DuckDbGraphRepository repo) {
+    private final DuckDbGraphRepository repo;
+    private final GraphTopologyEngine topologyEngine;
+    private final OneHopCursorCodec cursorCodec;
+    private final Executor queryExecutor;
+    private final DbConcurrencyLimiter limiter;
+    private final GraphMetrics metrics;
+
+    public GraphExploreService(DuckDbGraphRepository repo,
+                               GraphTopologyEngine topologyEngine,
+                               OneHopCursorCodec cursorCodec,
+                               @Qualifier("applicationTaskExecutor") Executor queryExecutor,
+                               DbConcurrencyLimiter limiter,
+                               GraphMetrics metrics) {
         this.repo = repo;
+        this.topologyEngine = topologyEngine;
+        this.cursorCodec = cursorCodec;
+        this.queryExecutor = queryExecutor;
+        this.limiter = limiter;
+        this.metrics = metrics;
     }
 
     public GraphResponse oneHop(OneHopRequest req) {
-        int limit = clampLimit(req.limit(), 200);
-        String cursor = normalizeCursor(req.cursor());
-        Set<String> edgeKinds = normalizeEdgeKinds(req.edgeKinds());
-
-        Set<String> resolvedSeeds = new LinkedHashSet<>(normalizeList(req.seeds()));
-        resolvedSeeds.addAll(resolveByIds(req.ids()));
-        resolvedSeeds.addAll(resolveByLookup("phone_no", req.phoneNos()));
-        resolvedSeeds.addAll(resolveByLookup("party_rk", req.partyRks()));
+        return metrics.operation("one-hop", () -> findOneHop(req));
+    }
 
-        if (resolvedSeeds.isEmpty()) {
-            return new GraphResponse(List.of(), List.of(), List.of());
+    private GraphResponse findOneHop(OneHopRequest req) {
+        OneHopPlan plan = planOneHop(req);
+        if (plan == null) {
+            return new GraphResponse(List.of(), List.of(), List.of(), null);
         }
-
-        List<String> seeds = new ArrayList<>(resolvedSeeds);
+        int limit = plan.limit();
+        Set<String> edgeKinds = plan.edgeKinds();
+        Map<String, SeedPosition> positions = plan.positions();
         Map<String, EdgeDto> edgesById = new LinkedHashMap<>();
-        List<SeedPageDto> pages = new ArrayList<>(seeds.size());
-        Set<String> nodeIds = new LinkedHashSet<>(seeds);
-
-        for (String seed : seeds) {
-            List<EdgeDto> edges = repo.findOutEdges(seed, cursor, limit + 1, edgeKinds);
+        List<SeedPageDto> pages = new ArrayList<>(positions.size());
+        Map<String, SeedPosition> nextPositions = new LinkedHashMap<>();
+        Set<String> nodeIds = new LinkedHashSet<>(positions.keySet());
+
+        Map<String, List<SeedEdge>> edgesBySeed = new HashMap<>();
+        for (List<SeedEdge> chunk : findEdgesInParallel(positions, limit + 1, plan.direction(), edgeKinds)) {
+            for (SeedEdge row : chunk) {
+                edgesBySeed.computeIfAbsent(row.seed(), k -> new ArrayList<>()).add(row);
+            }
+        }
 
-            boolean hasNext = edges.size() > limit;
-            List<EdgeDto> pageEdges = edges.subList(0, Math.min(limit, edges.size()));
-            String endCursor = pageEdges.isEmpty() ? cursor : pageEdges.get(pageEdges.size() - 1).dst();
+        for (Map.Entry<String, SeedPosition> entry : positions.entrySet()) {
+            String seed = entry.getKey();
+            SeedPosition position = entry.getValue();
+            List<SeedEdge> rows = edgesBySeed.getOrDefault(seed, List.of());
+
+            boolean hasNext = rows.size() > limit;
+            List<SeedEdge> pageRows = rows.subList(0, Math.min(limit, rows.size()));
+            String endCursor;
+            if (pageRows.isEmpty()) {
+                endCursor = position == null ? "" : position.lastNode();
+            } else {
+                SeedEdge last = pageRows.get(pageRows.size() - 1);
+                endCursor = last.neighbor();
+                if (hasNext) {
+                    nextPositions.put(seed, nextPosition(last));
+                }
+            }
 
             pages.add(new SeedPageDto(seed, endCursor, hasNext));
 
-            for (EdgeDto edge : pageEdges) {
+            for (SeedEdge row : pageRows) {
+                EdgeDto edge = row.edge();
                 edgesById.putIfAbsent(edge.id(), edge);
                 nodeIds.add(edge.src());
                 nodeIds.add(edge.dst());
@@ -56,51 +114,410 @@ public class GraphExploreService {
 
         List<NodeDto> nodes = new ArrayList<>(nodeIds.size());
         for (String nodeId : nodeIds) {
-            nodes.add(fetchedNodes.getOrDefault(nodeId, fallbackNode(nodeId)));
+            NodeDto node = fetchedNodes.get(nodeId);
+            nodes.add(topologyEngine.withDegrees(node != null ? node : fallbackNode(nodeId)));
         }
 
-        return new GraphResponse(nodes, new ArrayList<>(edgesById.values()), pages);
+        return new GraphResponse(nodes, new ArrayList<>(edgesById.values()), pages,
+                cursorCodec.encode(nextPositions, edgeKinds, plan.direction()));
     }
 
-    public ResolveResponse resolve(ResolveRequest req) {
-        Map<String, NodeDto> resolved = new LinkedHashMap<>();
+    /**
+     * Streaming variant of {@link #oneHop}: edges go to the sink as they are read from DuckDB and
+     * are never collected, nodes are deduplicated through a {@link NodeIdSet} and fetched in batches
+     * once the edge query has released its connection.
+     * Seeds and the cursor are resolved eagerly so request errors surface before anything is written.
+     */
+    public GraphStream streamOneHop(OneHopRequest req) {
+        OneHopPlan plan = planOneHop(req);
+        if (plan == null) {
+            return sink -> sink.end(null);
+        }
+        return sink -> metrics.operation("one-hop-stream", () -> writeOneHop(plan, sink));
+    }
+
+    private void writeOneHop(OneHopPlan plan, GraphStreamSink sink) {
+        int limit = plan.limit();
+        NodeIdSet nodeIds = topologyEngine.newNodeIdSet();
+        plan.positions().keySet().forEach(nodeIds::add);
+
+        // rows arrive grouped by seed; the (limit + 1)-th row of a seed only signals a next page
+        Map<String, SeedEdge> lastEdges = new HashMap<>();
+        Set<String> seedsWithNext = new HashSet<>();
+        int[] seedRows = new int[1];
+        String[] currentSeed = new String[1];
+        repo.streamEdgesForSeeds(plan.positions(), limit + 1, plan.direction(), plan.edgeKinds(), row -> {
+            if (!row.seed().equals(currentSeed[0])) {
+                currentSeed[0] = row.seed();
+                seedRows[0] = 0;
+            }
+            if (++seedRows[0] > limit) {
+                seedsWithNext.add(row.seed());
+                return;
+            }
+            lastEdges.put(row.seed(), row);
+            nodeIds.add(row.neighbor());
+            sink.edge(row.edge());
+        });
+
+        nodeIds.forEachBatch(NODE_BATCH_SIZE, batch -> {
+            Map<String, NodeDto> fetched = new HashMap<>();
+            for (NodeDto node : repo.findNodesByIds(batch)) {
+                fetched.put(node.id(), node);
+            }
+            for (String nodeId : batch) {
+                NodeDto node = fetched.get(nodeId);
+                sink.node(topologyEngine.withDegrees(node != null ? node : fallbackNode(nodeId)));
+            }
+        });
+
+        Map<String, SeedPosition> nextPositions = new LinkedHashMap<>();
+        for (Map.Entry<String, SeedPosition> entry : plan.positions().entrySet()) {
+            String seed = entry.getKey();
+            SeedEdge last = lastEdges.get(seed);
+            boolean hasNext = seedsWithNext.contains(seed);
+            String endCursor;
+            if (last == null) {
+                endCursor = entry.getValue() == null ? "" : entry.getValue().lastNode();
+            } else {
+                endCursor = last.neighbor();
+                if (hasNext) {
+                    nextPositions.put(seed, nextPosition(last));
+                }
+            }
+            sink.page(new SeedPageDto(seed, endCursor, hasNext));
+        }
+        sink.end(cursorCodec.encode(nextPositions, plan.edgeKinds(), plan.direction()));
+    }
+
+    private static SeedPosition nextPosition(SeedEdge last) {
+        return new SeedPosition(last.neighbor(), last.edge().kind(), last.inbound());
+    }
+
+    /**
+     * @return null when no seed could be resolved
+     */
+    private OneHopPlan planOneHop(OneHopRequest req) {
+        int limit = clampLimit(req.limit(), 200);
+        String cursor = normalizeCursor(req.cursor());
+        Set<String> edgeKinds = normalizeEdgeKinds(req.edgeKinds());
+        Direction direction = normalizeDirection(req.direction());
+
+        Set<String> resolvedSeeds = resolveSeeds(req.seeds(), req.ids(), req.phoneNos(), req.partyRks());
+        if (resolvedSeeds.isEmpty()) {
+            return null;
+        }
+        return new OneHopPlan(limit, edgeKinds, direction, seedPositions(resolvedSeeds, cursor, edgeKinds, direction));
+    }
+
+    /**
+     * Splits a large seed set into groups of at least {@link #SEEDS_PER_QUERY} seeds and runs one
+     * {@code findEdgesForSeeds} per group concurrently. Seeds are independent, so the union of the groups
+     * equals the single-query result.
+     * <p>
+     * The request's admission permit covers one query; every further group needs a {@link DbConcurrencyLimiter}
+     * permit that is free right now, so the fan-out shrinks under load and falls back to one query when the
+     * pool is busy. The extra permits are returned once every group has finished.
+     */
+    private List<List<SeedEdge>> findEdgesInParallel(Map<String, SeedPosition> positions,
+                                                     int limitPerSeed,
+                                                     Direction direction,
+                                                     Set<String> edgeKinds) {
+        int wanted = Math.min(limiter.size(), (positions.size() + SEEDS_PER_QUERY - 1) / SEEDS_PER_QUERY);
+        int extra = wanted <= 1 ? 0 : limiter.tryAcquireExtra(wanted - 1);
+        if (extra == 0) {
+            return List.of(repo.findEdgesForSeeds(positions, limitPerSeed, direction, edgeKinds));
+        }
 
-        Set<String> ids = normalizeSet(req.ids());
-        if (!ids.isEmpty()) {
-            for (NodeDto node : repo.findNodesByIds(ids)) {
-                resolved.putIfAbsent(node.id(), node);
+        int groups = extra + 1;
+        int perGroup = (positions.size() + groups - 1) / groups;
+        List<CompletableFuture<List<SeedEdge>>> futures = new ArrayList<>(groups);
+        try {
+            Map<String, SeedPosition> group = new LinkedHashMap<>();
+            for (Map.Entry<String, SeedPosition> entry : positions.entrySet()) {
+                group.put(entry.getKey(), entry.getValue());
+                if (group.size() == perGroup) {
+                    futures.add(findEdgesAsync(group, limitPerSeed, direction, edgeKinds));
+                    group = new LinkedHashMap<>();
+                }
             }
-            for (NodeDto node : repo.findNodesByLookup("id", ids)) {
-                resolved.putIfAbsent(node.id(), node);
+            if (!group.isEmpty()) {
+                futures.add(findEdgesAsync(group, limitPerSeed, direction, edgeKinds));
             }
+        } finally {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, error) -> limiter.release(extra));
         }
 
-        Set<String> phoneNos = normalizeSet(req.phoneNos());
-        if (!phoneNos.isEmpty()) {
-            for (NodeDto node : repo.findNodesByLookup("phone_no", phoneNos)) {
-                resolved.putIfAbsent(node.id(), node);
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<List<SeedEdge>> findEdgesAsync(Map<String, SeedPosition> group,
+                                                             int limitPerSeed,
+                                                             Direction direction,
+                                                             Set<String> edgeKinds) {
+        return CompletableFuture.supplyAsync(
+                () -> repo.findEdgesForSeeds(group, limitPerSeed, direction, edgeKinds), queryExecutor);
+    }
+
+    private record OneHopPlan(int limit,
+                              Set<String> edgeKinds,
+                              Direction direction,
+                              Map<String, SeedPosition> positions) {}
+
+    /**
+     * Bounded k-hop expansion. Each level costs one batched edge query for the whole frontier; with a
+     * loaded topology snapshot the traversal runs in memory and only the chosen edges are read, in one query.
+     * When the request deadline passes mid-traversal, the levels visited so far come back with {@code timedOut}.
+     */
+    public ExpandResponse expand(ExpandRequest req) {
+        return metrics.operation("expand", () -> findExpansion(req));
+    }
+
+    private ExpandResponse findExpansion(ExpandRequest req) {
+        int fanOut = clampFanOut(req.fanOut());
+        int maxNodes = clampMaxNodes(req.maxNodes());
+        Set<String> edgeKinds = normalizeEdgeKinds(req.edgeKinds());
+
+        Set<String> seeds = resolveSeeds(req.seeds(), req.ids(), req.phoneNos(), req.partyRks());
+        if (seeds.isEmpty()) {
+            return new ExpandResponse(List.of(), List.of(), Map.of(), false, false);
         }
 
-        Set<String> partyRks = normalizeSet(req.partyRks());
-        if (!partyRks.isEmpty()) {
-            for (NodeDto node : repo.findNodesByLookup("party_rk", partyRks)) {
-                resolved.putIfAbsent(node.id(), node);
+        Map<String, Integer> hops;
+        List<EdgeDto> edges = new ArrayList<>();
+        boolean truncated;
+        boolean timedOut;
+        Map<String, SeedPosition> expanded = new LinkedHashMap<>();
+        if (topologyEngine.isReady()) {
+            Neighborhood neighborhood = topologyEngine.expand(seeds, req.depth(), fanOut, maxNodes, edgeKinds);
+            hops = neighborhood.hops();
+            truncated = neighborhood.truncated();
+            timedOut = neighborhood.timedOut();
+            neighborhood.expanded().forEach(id -> expanded.put(id, null));
+        } else {
+            hops = new LinkedHashMap<>();
+            SqlExpansion expansion = expandBySql(seeds, req.depth(), fanOut, maxNodes, edgeKinds, hops, edges);
+            truncated = expansion.truncated();
+            timedOut = expansion.timedOut();
+        }
+
+        // past the deadline the visited part is still materialized: at most maxNodes nodes and
+        // fanOut edges per expanded node, so the remaining queries are bounded
+        Deadline deadline = timedOut ? Deadline.NONE : Deadline.current();
+        List<NodeDto> nodes = Deadline.callWith(deadline, () -> {
+            for (SeedEdge row : repo.findEdgesForSeeds(expanded, fanOut, Direction.OUT, edgeKinds)) {
+                if (hops.containsKey(row.neighbor())) {
+                    edges.add(row.edge());
+                }
+            }
+            Map<String, NodeDto> fetchedNodes = repo.findNodesByIds(hops.keySet()).stream()
+                    .collect(Collectors.toMap(NodeDto::id, n -> n, (a, b) -> a));
+            List<NodeDto> result = new ArrayList<>(hops.size());
+            for (String nodeId : hops.keySet()) {
+                NodeDto node = fetchedNodes.get(nodeId);
+                result.add(topologyEngine.withDegrees(node != null ? node : fallbackNode(nodeId)));
             }
+            return result;
+        });
+        return new ExpandResponse(nodes, edges, hops, truncated, timedOut);
+    }
+
+    private record SqlExpansion(boolean truncated, boolean timedOut) {}
+
+    /**
+     * Same traversal as the in-memory expander, one {@code findEdgesForSeeds} call per level.
+     * A level that runs into the request deadline is dropped and the levels before it are kept.
+     */
+    private SqlExpansion expandBySql(Set<String> seeds,
+                                int depth,
+                                int fanOut,
+                                int maxNodes,
+                                Set<String> edgeKinds,
+                                Map<String, Integer> hops,
+                                List<EdgeDto> edges) {
+        boolean truncated = false;
+        List<String> frontier = new ArrayList<>();
+        for (String seed : seeds) {
+            hops.put(seed, 0);
+            frontier.add(seed);
         }
 
-        return new ResolveResponse(new ArrayList<>(resolved.values()));
+        for (int level = 1; level <= depth && !frontier.isEmpty(); level++) {
+            Map<String, SeedPosition> positions = new LinkedHashMap<>();
+            frontier.forEach(id -> positions.put(id, null));
+
+            List<SeedEdge> levelEdges;
+            try {
+                Deadline.current().check();
+                levelEdges = repo.findEdgesForSeeds(positions, fanOut + 1, Direction.OUT, edgeKinds);
+            } catch (DeadlineExceededException e) {
+                return new SqlExpansion(true, true);
+            }
+
+            List<String> next = new ArrayList<>();
+            String currentSrc = null;
+            int taken = 0;
+            // rows are ordered by src, dst, kind; the (fanOut + 1)-th row of a src only signals truncation
+            for (SeedEdge row : levelEdges) {
+                EdgeDto edge = row.edge();
+                if (!edge.src().equals(currentSrc)) {
+                    currentSrc = edge.src();
+                    taken = 0;
+                }
+                if (++taken > fanOut) {
+                    truncated = true;
+                    continue;
+                }
+                if (!hops.containsKey(edge.dst())) {
+                    if (hops.size() >= maxNodes) {
+                        truncated = true;
+                        continue;
+                    }
+                    hops.put(edge.dst(), level);
+                    next.add(edge.dst());
+                }
+                edges.add(edge);
+            }
+            frontier = next;
+        }
+        return new SqlExpansion(truncated, false);
+    }
+
+    /**
+     * Explicit seeds are taken as is; ids/phoneNos/partyRks are resolved in one {@code resolveAll} round trip.
+     */
+    private Set<String> resolveSeeds(List<String> seeds, List<String> ids, List<String> phoneNos, List<String> partyRks) {
+        Set<String> resolved = new LinkedHashSet<>(normalizeList(seeds));
+        for (LookupMatch match : repo.resolveAll(lookups(ids, phoneNos, partyRks))) {
+            resolved.add(match.node().id());
+        }
+        return resolved;
+    }
+
+    /**
+     * Lookup kind -> normalized values; kinds without values are left out.
+     */
+    private static Map<String, Set<String>> lookups(List<String> ids, List<String> phoneNos, List<String> partyRks) {
+        Map<String, Set<String>> lookups = new LinkedHashMap<>();
+        putIfNotEmpty(lookups, "id", normalizeSet(ids));
+        putIfNotEmpty(lookups, "phone_no", normalizeSet(phoneNos));
+        putIfNotEmpty(lookups, "party_rk", normalizeSet(partyRks));
+        return lookups;
+    }
+
+    private static void putIfNotEmpty(Map<String, Set<String>> lookups, String kind, Set<String> values) {
+        if (!values.isEmpty()) {
+            lookups.put(kind, values);
+        }
+    }
+
+    /**
+     * First page starts every seed from the beginning; a continuation token only
+     * carries seeds that still had a next page, so exhausted seeds are not re-queried.
+     */
+    private Map<String, SeedPosition> seedPositions(Set<String> seeds,
+                                                    String cursor,
+                                                    Set<String> edgeKinds,
+                                                    Direction direction) {
+        Map<String, SeedPosition> positions = new LinkedHashMap<>();
+        if (cursor.isEmpty()) {
+            for (String seed : seeds) {
+                positions.put(seed, null);
+            }
+            return positions;
+        }
+
+        Map<String, SeedPosition> decoded = cursorCodec.decode(cursor, edgeKinds, direction);
+        for (Map.Entry<String, SeedPosition> entry : decoded.entrySet()) {
+            if (!seeds.contains(entry.getKey())) {
+                throw new InvalidCursorException("Cursor references seed outside of the request: " + entry.getKey());
+            }
+            // pages resume after the stored kind code; a kind that was never stored has none to resume after
+            if (repo.edgeKindCode(entry.getValue().lastKind()) == null) {
+                throw new InvalidCursorException("Cursor references unknown edge kind: " + entry.getValue().lastKind());
+            }
+        }
+        for (String seed : seeds) {
+            if (decoded.containsKey(seed)) {
+                positions.put(seed, decoded.get(seed));
+            }
+        }
+        return positions;
+    }
+
+    public ResolveResponse resolve(ResolveRequest req) {
+        return metrics.operation("resolve", () -> resolveLookups(req));
+    }
+
+    private ResolveResponse resolveLookups(ResolveRequest req) {
+        Map<String, Set<String>> lookups = lookups(req.ids(), req.phoneNos(), req.partyRks());
+
+        Map<String, NodeDto> resolved = new LinkedHashMap<>();
+        List<ResolveMatchDto> matches = new ArrayList<>();
+        Map<String, Set<String>> matchedValues = new HashMap<>();
+        for (LookupMatch match : repo.resolveAll(lookups)) {
+            resolved.putIfAbsent(match.node().id(), topologyEngine.withDegrees(match.node()));
+            matches.add(new ResolveMatchDto(match.lookupKind(), match.value(), match.node().id()));
+            matchedValues.computeIfAbsent(match.lookupKind(), k -> new HashSet<>()).add(match.value());
+        }
+
+        List<ResolveMatchDto> unresolved = new ArrayList<>();
+        lookups.forEach((kind, values) -> {
+            Set<String> matched = matchedValues.getOrDefault(kind, Set.of());
+            for (String value : values) {
+                if (!matched.contains(value)) {
+                    unresolved.add(new ResolveMatchDto(kind, value, null));
+                }
+            }
+        });
+
+        return new ResolveResponse(new ArrayList<>(resolved.values()), matches, unresolved);
     }
 
     public PathResponse shortestPath(ShortestPathRequest req) {
+        return metrics.operation("shortest-path", () -> findShortestPath(req));
+    }
+
+    private PathResponse findShortestPath(ShortestPathRequest req) {
         String from = normalizeId(req.from());
         String to = normalizeId(req.to());
         int maxHops = clampMaxHops(req.maxHops());
         Set<String> edgeKinds = normalizeEdgeKinds(req.edgeKinds());
-
-        List<String> path = repo.shortestPathVertices(from, to, maxHops, edgeKinds);
+        PathAlgorithm algorithm = req.algorithm() == null ? PathAlgorithm.BIDIRECTIONAL : req.algorithm();
+        Direction direction = normalizeDirection(req.direction());
+        String weightAttr = req.weightAttr() == null || req.weightAttr().isBlank() ? null : req.weightAttr().trim();
+
+        List<String> path;
+        WeightedPath weighted = null;
+        if (weightAttr != null) {
+            // weights only exist in the in-memory topology: the recursive SQL fallback counts hops
+            if (!topologyEngine.hasWeight(weightAttr)) {
+                throw new InvalidPathRequestException(
+                        "Edge attribute is not configured in graph.topology.weight-attrs: " + weightAttr);
+            }
+            if (!topologyEngine.isReady()) {
+                throw new InvalidPathRequestException("Weighted shortest path needs the in-memory topology");
+            }
+            PathObjective objective = req.objective() == null ? PathObjective.MIN : req.objective();
+            weighted = topologyEngine.weightedShortestPath(
+                    from, to, maxHops, direction, edgeKinds, weightAttr, objective);
+            path = weighted.vertices();
+        } else {
+            path = topologyEngine.isReady()
+                    ? topologyEngine.shortestPath(from, to, maxHops, direction, edgeKinds, algorithm)
+                    : repo.shortestPathVertices(from, to, maxHops, direction, edgeKinds);
+        }
+        metrics.pathFound(!path.isEmpty());
         if (path.isEmpty()) {
-            return new PathResponse(List.of(), List.of(), 0);
+            return new PathResponse(List.of(), List.of(), 0, null);
         }
 
         Set<String> nodeIds = new LinkedHashSet<>(path);
@@ -109,18 +526,47 @@ public class GraphExploreService {
 
         List<NodeDto> nodes = new ArrayList<>(nodeIds.size());
         for (String nodeId : nodeIds) {
-            nodes.add(fetchedNodes.getOrDefault(nodeId, fallbackNode(nodeId)));
+            NodeDto node = fetchedNodes.get(nodeId);
+            nodes.add(topologyEngine.withDegrees(node != null ? node : fallbackNode(nodeId)));
         }
 
-        List<EdgeDto> edges = new ArrayList<>();
+        if (weighted != null) {
+            // the exact edge whose weight went into the cost, not whichever parallel edge sorts first
+            Map<EdgeRef, EdgeDto> fetchedEdges = repo.findEdgesByRefs(weighted.edges());
+            List<EdgeDto> edges = new ArrayList<>(weighted.edges().size());
+            for (EdgeRef ref : weighted.edges()) {
+                EdgeDto edge = fetchedEdges.get(ref);
+                edges.add(edge != null ? edge : fallbackEdge(ref.src(), ref.dst()));
+            }
+            return new PathResponse(nodes, edges, path.size() - 1, weighted.cost());
+        }
+
+        // edges keep their stored orientation: a hop walked against an edge is looked up as (next, current)
+        List<EdgeKey> hops = new ArrayList<>(path.size() - 1);
+        List<EdgeKey> pairs = new ArrayList<>(direction == Direction.BOTH ? 2 * (path.size() - 1) : path.size() - 1);
         for (int i = 0; i + 1 < path.size(); i++) {
-            String src = path.get(i);
-            String dst = path.get(i + 1);
-            edges.add(repo.findEdge(src, dst, edgeKinds)
-                    .orElseGet(() -> fallbackEdge(src, dst)));
+            EdgeKey hop = new EdgeKey(path.get(i), path.get(i + 1));
+            EdgeKey reversed = new EdgeKey(hop.dst(), hop.src());
+            hops.add(direction == Direction.IN ? reversed : hop);
+            if (direction != Direction.IN) {
+                pairs.add(hop);
+            }
+            if (direction != Direction.OUT) {
+                pairs.add(reversed);
+            }
+        }
+        Map<EdgeKey, EdgeDto> fetchedEdges = repo.findEdgesByPairs(pairs, edgeKinds);
+
+        List<EdgeDto> edges = new ArrayList<>(hops.size());
+        for (EdgeKey hop : hops) {
+            EdgeDto edge = fetchedEdges.get(hop);
+            if (edge == null && direction == Direction.BOTH) {
+                edge = fetchedEdges.get(new EdgeKey(hop.dst(), hop.src()));
+            }
+            edges.add(edge != null ? edge : fallbackEdge(hop.src(), hop.dst()));
         }
 
-        return new PathResponse(nodes, edges, path.size() - 1);
+        return new PathResponse(nodes, edges, path.size() - 1, null);
     }
 
     private static String normalizeId(String value) {
@@ -132,11 +578,25 @@ public class GraphExploreService {
         return Math.min(limit, max);
     }
 
+    private static int clampFanOut(int fanOut) {
+        if (fanOut <= 0) return 50;
+        return Math.min(fanOut, 200);
+    }
+
+    private static int clampMaxNodes(int maxNodes) {
+        if (maxNodes <= 0) return 1000;
+        return Math.min(maxNodes, 5000);
+    }
+
     private static int clampMaxHops(int maxHops) {
         if (maxHops <= 0) return 10;
         return Math.min(maxHops, 20);
     }
 
+    private static Direction normalizeDirection(Direction direction) {
+        return direction == null ? Direction.OUT : direction;
+    }
+
     private static String normalizeCursor(String cursor) {
         return cursor == null ? "" : cursor.trim();
     }
@@ -175,40 +635,17 @@ public class GraphExploreService {
                 .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
-    private Set<String> resolveByIds(List<String> ids) {
-        Set<String> normalized = normalizeSet(ids);
-        if (normalized.isEmpty()) {
-            return Set.of();
-        }
-        Set<String> resolved = new LinkedHashSet<>();
-        for (NodeDto node : repo.findNodesByIds(normalized)) {
-            resolved.add(node.id());
-        }
-        for (NodeDto node : repo.findNodesByLookup("id", normalized)) {
-            resolved.add(node.id());
-        }
-        return resolved;
-    }
-
-    private Set<String> resolveByLookup(String lookupKind, List<String> values) {
-        Set<String> normalized = normalizeSet(values);
-        if (normalized.isEmpty()) {
-            return Set.of();
-        }
-        return repo.findNodesByLookup(lookupKind, normalized).stream()
-                .map(NodeDto::id)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-    }
-
-    private static NodeDto fallbackNode(String id) {
+    private NodeDto fallbackNode(String id) {
+        metrics.fallbackNode();
         String kind = detectKind(id);
-        return new NodeDto(id, kind, id, Map.of(), Set.of());
+        return new NodeDto(id, kind, id, RawJson.EMPTY_OBJECT, Set.of());
     }
 
-    private static EdgeDto fallbackEdge(String src, String dst) {
+    private EdgeDto fallbackEdge(String src, String dst) {
+        metrics.fallbackEdge();
         String kind = "path";
         String edgeId = src + "->" + dst + ":" + kind;
-        return new EdgeDto(edgeId, src, dst, kind, Map.of(), Set.of());
+        return new EdgeDto(edgeId, src, dst, kind, RawJson.EMPTY_OBJECT, Set.of());
     }
 
     private static String detectKind(String id) {
@@ -0,0 +1,10 @@
+package com.pm.graph_api_v1.service;
+
+/**
+ * Deferred expansion; request validation has already happened, {@link #writeTo} only runs queries.
+ */
+@FunctionalInterface
+public interface GraphStream {
+
+    void writeTo(GraphStreamSink sink);
+}
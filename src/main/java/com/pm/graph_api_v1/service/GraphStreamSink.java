@@ -0,0 +1,20 @@
+package com.pm.graph_api_v1.service;
+
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.api.dto.graph.SeedPageDto;
+
+/**
+ * Receiver of a streamed expansion: edges first (in result set order), then the nodes they touch,
+ * then per-seed pages, then {@link #end} exactly once.
+ */
+public interface GraphStreamSink {
+
+    void edge(EdgeDto edge);
+
+    void node(NodeDto node);
+
+    void page(SeedPageDto page);
+
+    void end(String nextCursor);
+}
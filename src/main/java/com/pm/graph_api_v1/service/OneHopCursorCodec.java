@@ -0,0 +1,105 @@
+package com.pm.graph_api_v1.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.SeedPosition;
+import com.pm.graph_api_v1.exeption.InvalidCursorException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Opaque one-hop cursor: base64url JSON with a (seed, lastNode, lastKind) position for every seed
+ * that still has a next page, plus a fingerprint of the edge kind filter and the direction it was issued for.
+ * Undirected positions carry a fourth element, whether the last edge was an in-edge of the seed.
+ * Cursors without a direction were issued for outgoing pages.
+ */
+@Component
+public class OneHopCursorCodec {
+
+    private static final int VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+
+    public OneHopCursorCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return null when no seed has a next page
+     */
+    public String encode(Map<String, SeedPosition> positions, Set<String> edgeKinds, Direction direction) {
+        if (positions.isEmpty()) {
+            return null;
+        }
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("v", VERSION);
+        root.put("k", kindsFingerprint(edgeKinds));
+        root.put("d", direction.value());
+        ArrayNode items = root.putArray("p");
+        positions.forEach((seed, position) -> {
+            ArrayNode item = items.addArray()
+                    .add(seed)
+                    .add(position.lastNode())
+                    .add(position.lastKind());
+            if (direction == Direction.BOTH) {
+                item.add(position.lastInbound());
+            }
+        });
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(root);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    public Map<String, SeedPosition> decode(String cursor, Set<String> edgeKinds, Direction direction) {
+        JsonNode root;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            root = objectMapper.readTree(new String(json, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+
+        if (root == null || root.path("v").asInt() != VERSION || !root.path("p").isArray()) {
+            throw new InvalidCursorException("Unsupported cursor");
+        }
+        if (!kindsFingerprint(edgeKinds).equals(root.path("k").asText())) {
+            throw new InvalidCursorException("Cursor was issued for different edgeKinds");
+        }
+        if (!root.path("d").asText(Direction.OUT.value()).equals(direction.value())) {
+            throw new InvalidCursorException("Cursor was issued for a different direction");
+        }
+        int itemSize = direction == Direction.BOTH ? 4 : 3;
+
+        Map<String, SeedPosition> positions = new LinkedHashMap<>();
+        for (JsonNode item : root.get("p")) {
+            if (!item.isArray() || item.size() != itemSize || !item.get(0).isTextual()
+                    || !item.get(1).isTextual() || !item.get(2).isTextual()
+                    || (itemSize == 4 && !item.get(3).isBoolean())) {
+                throw new InvalidCursorException("Malformed cursor position");
+            }
+            boolean inbound = itemSize == 4 ? item.get(3).asBoolean() : direction == Direction.IN;
+            positions.put(item.get(0).asText(),
+                    new SeedPosition(item.get(1).asText(), item.get(2).asText(), inbound));
+        }
+        return positions;
+    }
+
+    private static String kindsFingerprint(Set<String> edgeKinds) {
+        if (edgeKinds == null || edgeKinds.isEmpty()) {
+            return "*";
+        }
+        return Integer.toHexString(String.join(",", new TreeSet<>(edgeKinds)).hashCode());
+    }
+}
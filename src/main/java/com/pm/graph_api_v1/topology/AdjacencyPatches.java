@@ -0,0 +1,68 @@
+package com.pm.graph_api_v1.topology;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable map from node index to a replacement adjacency slice, the copy-on-write part of a
+ * {@link GraphTopology} overlay. {@link #with} copies the table and leaves this instance untouched,
+ * so readers of an older snapshot never see a half-applied delta.
+ */
+final class AdjacencyPatches {
+
+    static final AdjacencyPatches EMPTY = new AdjacencyPatches(new IntIntHashMap(1), new Adjacency[0], 0);
+
+    /**
+     * Adjacent node indexes with the edge kind code and the edge weights (one column per weight
+     * attribute) at the same position, sorted like a CSR slice.
+     */
+    record Adjacency(int[] nodes, byte[] kinds, float[][] weights) {
+
+        int size() {
+            return nodes.length;
+        }
+    }
+
+    private final IntIntHashMap slots;
+    private final Adjacency[] values;
+    private final int size;
+
+    private AdjacencyPatches(IntIntHashMap slots, Adjacency[] values, int size) {
+        this.slots = slots;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @return the patched slice, or null when the node reads the base CSR
+     */
+    Adjacency get(int node) {
+        if (size == 0) {
+            return null;
+        }
+        int slot = slots.get(node);
+        return slot == IntIntHashMap.MISSING ? null : values[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    AdjacencyPatches with(Map<Integer, Adjacency> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        IntIntHashMap nextSlots = slots.copy();
+        Adjacency[] nextValues = Arrays.copyOf(values, size + changes.size());
+        int nextSize = size;
+        for (Map.Entry<Integer, Adjacency> change : changes.entrySet()) {
+            int slot = nextSlots.get(change.getKey());
+            if (slot == IntIntHashMap.MISSING) {
+                slot = nextSize++;
+                nextSlots.put(change.getKey(), slot);
+            }
+            nextValues[slot] = change.getValue();
+        }
+        return new AdjacencyPatches(nextSlots, nextValues, nextSize);
+    }
+}
@@ -0,0 +1,106 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.domain.Direction;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Breadth-first shortest path over a {@link GraphTopology}.
+ * <p>
+ * Adjacency slices are sorted by adjacent id in every {@link Direction} and a node keeps the first parent
+ * that reaches it, so among equal-length paths the lexicographically smallest one wins, matching
+ * {@code ORDER BY length(path), path} of the SQL implementation.
+ * <p>
+ * Supernodes (more than {@code supernodeDegree} edges) other than the endpoints are never passed through,
+ * so a search does not fan out over their whole adjacency; the path found is the shortest one avoiding them.
+ * <p>
+ * The request {@link Deadline} is checked every {@value #DEADLINE_CHECK_INTERVAL} expanded nodes, so a search
+ * through hubs gives up with {@link com.pm.graph_api_v1.exeption.DeadlineExceededException} instead of running on.
+ */
+final class BfsPathFinder {
+
+    static final int[] NO_PATH = new int[0];
+
+    static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private BfsPathFinder() {
+    }
+
+    static int[] find(GraphTopology graph,
+                      int from,
+                      int to,
+                      int maxHops,
+                      Direction direction,
+                      boolean[] allowedKinds,
+                      int supernodeDegree) {
+        GraphTopology.Slice out = new GraphTopology.Slice();
+
+        if (from == to) {
+            graph.adjacent(from, direction, out);
+            for (int e = out.start; e < out.end; e++) {
+                if (out.nodes[e] == from && allowed(allowedKinds, out.kinds[e])) {
+                    return new int[]{from, from};
+                }
+            }
+            return NO_PATH;
+        }
+
+        BitSet visited = new BitSet(graph.nodeCount());
+        int[] queue = new int[64];
+        int[] parents = new int[64];
+        queue[0] = from;
+        parents[0] = -1;
+        visited.set(from);
+        int size = 1;
+        int head = 0;
+        Deadline deadline = Deadline.current();
+
+        for (int depth = 0; depth < maxHops && head < size; depth++) {
+            int levelEnd = size;
+            for (; head < levelEnd; head++) {
+                if (head % DEADLINE_CHECK_INTERVAL == 0) {
+                    deadline.check();
+                }
+                graph.adjacent(queue[head], direction, out);
+                for (int e = out.start; e < out.end; e++) {
+                    if (!allowed(allowedKinds, out.kinds[e])) {
+                        continue;
+                    }
+                    int v = out.nodes[e];
+                    if (visited.get(v)) {
+                        continue;
+                    }
+                    visited.set(v);
+                    if (v != to && graph.isSupernode(v, supernodeDegree)) {
+                        continue;
+                    }
+                    if (size == queue.length) {
+                        queue = Arrays.copyOf(queue, size << 1);
+                        parents = Arrays.copyOf(parents, size << 1);
+                    }
+                    queue[size] = v;
+                    parents[size] = head;
+                    size++;
+                    if (v == to) {
+                        return reconstruct(queue, parents, size - 1, depth + 1);
+                    }
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    private static int[] reconstruct(int[] queue, int[] parents, int last, int hops) {
+        int[] path = new int[hops + 1];
+        for (int i = hops, pos = last; i >= 0; i--, pos = parents[pos]) {
+            path[i] = queue[pos];
+        }
+        return path;
+    }
+
+    static boolean allowed(boolean[] allowedKinds, byte kind) {
+        return allowedKinds == null || allowedKinds[kind & 0xFF];
+    }
+}
@@ -0,0 +1,191 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.domain.Direction;
+
+import java.util.Arrays;
+
+import static com.pm.graph_api_v1.topology.BfsPathFinder.NO_PATH;
+import static com.pm.graph_api_v1.topology.BfsPathFinder.allowed;
+
+/**
+ * Bidirectional BFS: grows a forward frontier from {@code from} along the requested {@link Direction} and
+ * a backward frontier from {@code to} against it (in-edges for an outgoing walk, both ways for an
+ * undirected one), always expanding by a full level the one with fewer edges to scan, so a frontier
+ * holding a hub is left to the other side when possible. Supernodes are skipped as in {@link BfsPathFinder}.
+ * <p>
+ * Once the frontiers meet, every shortest path crosses the meeting layer. The result keeps the
+ * lexicographic tie-break of {@link BfsPathFinder}: the prefix is the forward BFS parent chain of
+ * the first meeting node in forward queue order (forward levels are ordered by their smallest
+ * prefixes), and the suffix is walked greedily over sorted forward adjacency using backward distances.
+ * The request deadline is checked as in {@link BfsPathFinder}.
+ */
+final class BidirectionalPathFinder {
+
+    private BidirectionalPathFinder() {
+    }
+
+    static int[] find(GraphTopology graph,
+                      int from,
+                      int to,
+                      int maxHops,
+                      Direction direction,
+                      boolean[] allowedKinds,
+                      int supernodeDegree) {
+        if (from == to) {
+            return BfsPathFinder.find(graph, from, to, maxHops, direction, allowedKinds, supernodeDegree);
+        }
+
+        GraphTopology.Slice slice = new GraphTopology.Slice();
+        Direction backward = direction.reverse();
+
+        // forward: queue of visited nodes with parent positions, node -> queue position
+        int[] fQueue = new int[64];
+        int[] fParents = new int[64];
+        IntIntHashMap fSeen = new IntIntHashMap(64);
+        fQueue[0] = from;
+        fParents[0] = -1;
+        fSeen.putIfAbsent(from, 0);
+        int fSize = 1;
+        int fLevelStart = 0;
+        int fDepth = 0;
+
+        // backward: queue of visited nodes, node -> distance to target
+        int[] bQueue = new int[64];
+        IntIntHashMap bDist = new IntIntHashMap(64);
+        bQueue[0] = to;
+        bDist.putIfAbsent(to, 0);
+        int bSize = 1;
+        int bLevelStart = 0;
+        int bDepth = 0;
+        Deadline deadline = Deadline.current();
+
+        while (fDepth + bDepth < maxHops) {
+            int fFrontier = fSize - fLevelStart;
+            int bFrontier = bSize - bLevelStart;
+            if (fFrontier == 0 || bFrontier == 0) {
+                return NO_PATH;
+            }
+
+            boolean met = false;
+            if (frontierDegree(graph, fQueue, fLevelStart, fSize, direction)
+                    <= frontierDegree(graph, bQueue, bLevelStart, bSize, backward)) {
+                int levelEnd = fSize;
+                for (int head = fLevelStart; head < levelEnd; head++) {
+                    if (head % BfsPathFinder.DEADLINE_CHECK_INTERVAL == 0) {
+                        deadline.check();
+                    }
+                    graph.adjacent(fQueue[head], direction, slice);
+                    for (int e = slice.start; e < slice.end; e++) {
+                        if (!allowed(allowedKinds, slice.kinds[e])) {
+                            continue;
+                        }
+                        int v = slice.nodes[e];
+                        if (fSeen.containsKey(v) || (v != to && graph.isSupernode(v, supernodeDegree))) {
+                            continue;
+                        }
+                        fSeen.putIfAbsent(v, fSize);
+                        if (fSize == fQueue.length) {
+                            fQueue = Arrays.copyOf(fQueue, fSize << 1);
+                            fParents = Arrays.copyOf(fParents, fSize << 1);
+                        }
+                        fQueue[fSize] = v;
+                        fParents[fSize] = head;
+                        fSize++;
+                        met |= bDist.containsKey(v);
+                    }
+                }
+                fLevelStart = levelEnd;
+                fDepth++;
+            } else {
+                int levelEnd = bSize;
+                for (int head = bLevelStart; head < levelEnd; head++) {
+                    if (head % BfsPathFinder.DEADLINE_CHECK_INTERVAL == 0) {
+                        deadline.check();
+                    }
+                    graph.adjacent(bQueue[head], backward, slice);
+                    for (int e = slice.start; e < slice.end; e++) {
+                        if (!allowed(allowedKinds, slice.kinds[e])) {
+                            continue;
+                        }
+                        int u = slice.nodes[e];
+                        if (bDist.containsKey(u) || (u != from && graph.isSupernode(u, supernodeDegree))) {
+                            continue;
+                        }
+                        bDist.putIfAbsent(u, bDepth + 1);
+                        if (bSize == bQueue.length) {
+                            bQueue = Arrays.copyOf(bQueue, bSize << 1);
+                        }
+                        bQueue[bSize++] = u;
+                        met |= fSeen.containsKey(u);
+                    }
+                }
+                bLevelStart = levelEnd;
+                bDepth++;
+            }
+
+            if (met) {
+                return assemble(graph, direction, allowedKinds, fQueue, fParents, fLevelStart, fSize, fDepth,
+                        bDist, bDepth);
+            }
+        }
+        return NO_PATH;
+    }
+
+    /**
+     * Edges the next level of a frontier has to scan.
+     */
+    private static long frontierDegree(GraphTopology graph, int[] queue, int levelStart, int size, Direction direction) {
+        long degree = 0;
+        for (int pos = levelStart; pos < size; pos++) {
+            degree += graph.degree(queue[pos], direction);
+        }
+        return degree;
+    }
+
+    private static int[] assemble(GraphTopology graph,
+                                  Direction direction,
+                                  boolean[] allowedKinds,
+                                  int[] fQueue,
+                                  int[] fParents,
+                                  int fLevelStart,
+                                  int fSize,
+                                  int fDepth,
+                                  IntIntHashMap bDist,
+                                  int bDepth) {
+        int meet = -1;
+        for (int pos = fLevelStart; pos < fSize; pos++) {
+            if (bDist.get(fQueue[pos]) == bDepth) {
+                meet = pos;
+                break;
+            }
+        }
+        if (meet < 0) {
+            return NO_PATH;
+        }
+
+        int hops = fDepth + bDepth;
+        int[] path = new int[hops + 1];
+        for (int i = fDepth, pos = meet; i >= 0; i--, pos = fParents[pos]) {
+            path[i] = fQueue[pos];
+        }
+
+        GraphTopology.Slice out = new GraphTopology.Slice();
+        for (int i = fDepth; i < hops; i++) {
+            graph.adjacent(path[i], direction, out);
+            int remaining = hops - i - 1;
+            int next = -1;
+            for (int e = out.start; e < out.end; e++) {
+                if (allowed(allowedKinds, out.kinds[e]) && bDist.get(out.nodes[e]) == remaining) {
+                    next = out.nodes[e];
+                    break;
+                }
+            }
+            if (next < 0) {
+                return NO_PATH;
+            }
+            path[i + 1] = next;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,434 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.topology.AdjacencyPatches.Adjacency;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable compressed-sparse-row snapshot of the {@code edges} table.
+ * <p>
+ * Node ids are dictionary-encoded to dense ints; out-edges of node {@code u} live in
+ * {@code targets[offsets[u] .. offsets[u + 1])}, sorted by destination id, with the
+ * edge kind code at the same position in {@code kinds}. The reverse index mirrors this for
+ * in-edges: {@code sources[inOffsets[v] .. inOffsets[v + 1])}, sorted by source id.
+ * <p>
+ * Numeric edge attributes configured as weights are extracted once, at load time, into one
+ * {@code float[]} column per attribute aligned with each index ({@code weights[a]} with {@code targets},
+ * {@code inWeights[a]} with {@code sources}); NaN marks an edge without a numeric value.
+ * <p>
+ * Live edits ({@link GraphTopologyPatcher}) never touch these arrays: a changed node gets a replacement
+ * slice in {@link AdjacencyPatches}, and nodes first seen in a delta get indexes past the base ones.
+ * Traversals read slices through {@link #out} / {@link #in} (or {@link #adjacent} for a given direction),
+ * which fall back to the base CSR for unpatched nodes. {@link #compact()} folds the overlay back into plain
+ * CSR arrays in memory.
+ */
+public final class GraphTopology {
+
+    private final String[] nodeIds;
+    private final Map<String, Integer> nodeIndex;
+    private final int[] offsets;
+    private final int[] targets;
+    private final byte[] kinds;
+    private final int[] inOffsets;
+    private final int[] sources;
+    private final byte[] inKinds;
+    private final String[] kindNames;
+    private final Map<String, Integer> kindIndex;
+    private final String[] weightAttrs;
+    private final float[][] weights;
+    private final float[][] inWeights;
+    private final List<String> extraIds;
+    private final Map<String, Integer> extraIndex;
+    private final AdjacencyPatches outPatches;
+    private final AdjacencyPatches inPatches;
+    private final int edgeCount;
+
+    GraphTopology(String[] nodeIds,
+                  Map<String, Integer> nodeIndex,
+                  int[] offsets,
+                  int[] targets,
+                  byte[] kinds,
+                  int[] inOffsets,
+                  int[] sources,
+                  byte[] inKinds,
+                  String[] kindNames,
+                  Map<String, Integer> kindIndex,
+                  String[] weightAttrs,
+                  float[][] weights,
+                  float[][] inWeights) {
+        this.nodeIds = nodeIds;
+        this.nodeIndex = nodeIndex;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.kinds = kinds;
+        this.inOffsets = inOffsets;
+        this.sources = sources;
+        this.inKinds = inKinds;
+        this.kindNames = kindNames;
+        this.kindIndex = kindIndex;
+        this.weightAttrs = weightAttrs;
+        this.weights = weights;
+        this.inWeights = inWeights;
+        this.extraIds = List.of();
+        this.extraIndex = Map.of();
+        this.outPatches = AdjacencyPatches.EMPTY;
+        this.inPatches = AdjacencyPatches.EMPTY;
+        this.edgeCount = targets.length;
+    }
+
+    private GraphTopology(GraphTopology base,
+                          String[] kindNames,
+                          Map<String, Integer> kindIndex,
+                          List<String> extraIds,
+                          Map<String, Integer> extraIndex,
+                          AdjacencyPatches outPatches,
+                          AdjacencyPatches inPatches,
+                          int edgeCount) {
+        this.nodeIds = base.nodeIds;
+        this.nodeIndex = base.nodeIndex;
+        this.offsets = base.offsets;
+        this.targets = base.targets;
+        this.kinds = base.kinds;
+        this.inOffsets = base.inOffsets;
+        this.sources = base.sources;
+        this.inKinds = base.inKinds;
+        this.kindNames = kindNames;
+        this.kindIndex = kindIndex;
+        this.weightAttrs = base.weightAttrs;
+        this.weights = base.weights;
+        this.inWeights = base.inWeights;
+        this.extraIds = extraIds;
+        this.extraIndex = extraIndex;
+        this.outPatches = outPatches;
+        this.inPatches = inPatches;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Same base CSR with a different overlay.
+     */
+    GraphTopology withOverlay(String[] kindNames,
+                              Map<String, Integer> kindIndex,
+                              List<String> extraIds,
+                              Map<String, Integer> extraIndex,
+                              AdjacencyPatches outPatches,
+                              AdjacencyPatches inPatches,
+                              int edgeCount) {
+        return new GraphTopology(this, kindNames, kindIndex, extraIds, extraIndex, outPatches, inPatches, edgeCount);
+    }
+
+    /**
+     * Copies every slice as it reads now into fresh CSR arrays, without the overlay. Node indexes are kept,
+     * so nodes first seen in a delta become base nodes, and the copy answers exactly like this snapshot.
+     */
+    GraphTopology compact() {
+        if (overlaySize() == 0 && extraIds.isEmpty()) {
+            return this;
+        }
+        int nodeCount = nodeCount();
+        String[] ids = Arrays.copyOf(nodeIds, nodeCount);
+        Map<String, Integer> index = new HashMap<>(nodeIndex);
+        for (int i = 0; i < extraIds.size(); i++) {
+            ids[nodeIds.length + i] = extraIds.get(i);
+            index.put(extraIds.get(i), nodeIds.length + i);
+        }
+
+        Slice slice = new Slice();
+        int[] nextOffsets = new int[nodeCount + 1];
+        int[] nextInOffsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            nextOffsets[node + 1] = nextOffsets[node] + outDegree(node);
+            nextInOffsets[node + 1] = nextInOffsets[node] + inDegree(node);
+        }
+        int[] nextTargets = new int[nextOffsets[nodeCount]];
+        byte[] nextKinds = new byte[nextTargets.length];
+        float[][] nextWeights = new float[weightAttrs.length][nextTargets.length];
+        int[] nextSources = new int[nextInOffsets[nodeCount]];
+        byte[] nextInKinds = new byte[nextSources.length];
+        float[][] nextInWeights = new float[weightAttrs.length][nextSources.length];
+        for (int node = 0; node < nodeCount; node++) {
+            out(node, slice);
+            copy(slice, nextOffsets[node], nextTargets, nextKinds, nextWeights);
+            in(node, slice);
+            copy(slice, nextInOffsets[node], nextSources, nextInKinds, nextInWeights);
+        }
+        return new GraphTopology(ids, Map.copyOf(index), nextOffsets, nextTargets, nextKinds,
+                nextInOffsets, nextSources, nextInKinds, kindNames, kindIndex, weightAttrs, nextWeights, nextInWeights);
+    }
+
+    private static void copy(Slice slice, int at, int[] nodes, byte[] kinds, float[][] weights) {
+        int length = slice.end - slice.start;
+        System.arraycopy(slice.nodes, slice.start, nodes, at, length);
+        System.arraycopy(slice.kinds, slice.start, kinds, at, length);
+        for (int a = 0; a < weights.length; a++) {
+            System.arraycopy(slice.weights[a], slice.start, weights[a], at, length);
+        }
+    }
+
+    public int nodeCount() {
+        return nodeIds.length + extraIds.size();
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return number of nodes whose out- or in-slice is served from the overlay
+     */
+    public int overlaySize() {
+        return outPatches.size() + inPatches.size();
+    }
+
+    /**
+     * @return dense index of the node, or -1 when the node has never had edges
+     */
+    public int indexOf(String nodeId) {
+        Integer idx = nodeIndex.get(nodeId);
+        if (idx == null && !extraIndex.isEmpty()) {
+            idx = extraIndex.get(nodeId);
+        }
+        return idx == null ? -1 : idx;
+    }
+
+    public String nodeId(int index) {
+        return index < nodeIds.length ? nodeIds[index] : extraIds.get(index - nodeIds.length);
+    }
+
+    public String kindName(byte code) {
+        return kindNames[code & 0xFF];
+    }
+
+    /**
+     * Translates an edge kind filter to a lookup table indexed by kind code.
+     *
+     * @return null when every kind is allowed
+     */
+    public boolean[] kindFilter(Collection<String> edgeKinds) {
+        if (edgeKinds == null || edgeKinds.isEmpty()) {
+            return null;
+        }
+        boolean[] allowed = new boolean[256];
+        for (String kind : edgeKinds) {
+            Integer code = kindIndex.get(kind);
+            if (code != null) {
+                allowed[code] = true;
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * @return position of {@code attr} among the weight columns, or -1 when it was not loaded as a weight
+     */
+    public int weightIndex(String attr) {
+        for (int a = 0; a < weightAttrs.length; a++) {
+            if (weightAttrs[a].equals(attr)) {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    String[] weightAttrs() {
+        return weightAttrs;
+    }
+
+    /**
+     * @return number of out-edges of {@code node}, live edits included
+     */
+    int outDegree(int node) {
+        Adjacency patch = outPatches.get(node);
+        if (patch != null) {
+            return patch.size();
+        }
+        return node < nodeIds.length ? offsets[node + 1] - offsets[node] : 0;
+    }
+
+    /**
+     * @return number of in-edges of {@code node}, live edits included
+     */
+    int inDegree(int node) {
+        Adjacency patch = inPatches.get(node);
+        if (patch != null) {
+            return patch.size();
+        }
+        return node < nodeIds.length ? inOffsets[node + 1] - inOffsets[node] : 0;
+    }
+
+    /**
+     * @return number of edges {@link #adjacent} walks from {@code node} in {@code direction}
+     */
+    int degree(int node, Direction direction) {
+        return switch (direction) {
+            case OUT -> outDegree(node);
+            case IN -> inDegree(node);
+            case BOTH -> outDegree(node) + inDegree(node);
+        };
+    }
+
+    /**
+     * Whether {@code node} has more than {@code supernodeDegree} edges in and out; a non-positive
+     * threshold turns the check off.
+     */
+    boolean isSupernode(int node, int supernodeDegree) {
+        return supernodeDegree > 0 && degree(node, Direction.BOTH) > supernodeDegree;
+    }
+
+    /**
+     * Points {@code slice} at the out-edges of {@code node}, sorted by (dst id, kind).
+     */
+    void out(int node, Slice slice) {
+        Adjacency patch = outPatches.get(node);
+        if (patch != null) {
+            slice.set(patch.nodes(), patch.kinds(), patch.weights(), 0, patch.size());
+        } else if (node < nodeIds.length) {
+            slice.set(targets, kinds, weights, offsets[node], offsets[node + 1]);
+        } else {
+            slice.set(targets, kinds, weights, 0, 0);
+        }
+    }
+
+    /**
+     * Points {@code slice} at the in-edges of {@code node}, sorted by (src id, kind).
+     */
+    void in(int node, Slice slice) {
+        Adjacency patch = inPatches.get(node);
+        if (patch != null) {
+            slice.set(patch.nodes(), patch.kinds(), patch.weights(), 0, patch.size());
+        } else if (node < nodeIds.length) {
+            slice.set(sources, inKinds, inWeights, inOffsets[node], inOffsets[node + 1]);
+        } else {
+            slice.set(sources, inKinds, inWeights, 0, 0);
+        }
+    }
+
+    /**
+     * Points {@code slice} at the nodes adjacent to {@code node} in {@code direction}. For {@link Direction#BOTH}
+     * the out- and in-slices are merged into the slice's own buffer, sorted by adjacent id (out-edges first on
+     * ties), so an undirected walk keeps the same tie-break as a directed one.
+     */
+    void adjacent(int node, Direction direction, Slice slice) {
+        switch (direction) {
+            case OUT -> out(node, slice);
+            case IN -> in(node, slice);
+            case BOTH -> both(node, slice);
+        }
+    }
+
+    private void both(int node, Slice slice) {
+        Slice incoming = slice.incoming();
+        in(node, incoming);
+        out(node, slice);
+        if (incoming.start == incoming.end) {
+            return;
+        }
+        if (slice.start == slice.end) {
+            slice.set(incoming.nodes, incoming.kinds, incoming.weights, incoming.start, incoming.end);
+            return;
+        }
+
+        int size = (slice.end - slice.start) + (incoming.end - incoming.start);
+        int[] nodes = slice.merged(size, weightAttrs.length);
+        byte[] kinds = slice.mergedKinds;
+        float[][] mergedWeights = slice.mergedWeights;
+        int i = slice.start;
+        int j = incoming.start;
+        for (int pos = 0; pos < size; pos++) {
+            boolean takeOut = j == incoming.end
+                    || (i < slice.end && nodeId(slice.nodes[i]).compareTo(nodeId(incoming.nodes[j])) <= 0);
+            if (takeOut) {
+                nodes[pos] = slice.nodes[i];
+                kinds[pos] = slice.kinds[i];
+                for (int a = 0; a < weightAttrs.length; a++) {
+                    mergedWeights[a][pos] = slice.weights[a][i];
+                }
+                i++;
+            } else {
+                nodes[pos] = incoming.nodes[j];
+                kinds[pos] = incoming.kinds[j];
+                for (int a = 0; a < weightAttrs.length; a++) {
+                    mergedWeights[a][pos] = incoming.weights[a][j];
+                }
+                j++;
+            }
+        }
+        slice.set(nodes, kinds, mergedWeights, 0, size);
+    }
+
+    int baseNodeCount() {
+        return nodeIds.length;
+    }
+
+    String[] kindNames() {
+        return kindNames;
+    }
+
+    Map<String, Integer> kindIndex() {
+        return kindIndex;
+    }
+
+    List<String> extraIds() {
+        return extraIds;
+    }
+
+    Map<String, Integer> extraIndex() {
+        return extraIndex;
+    }
+
+    AdjacencyPatches outPatches() {
+        return outPatches;
+    }
+
+    AdjacencyPatches inPatches() {
+        return inPatches;
+    }
+
+    /**
+     * Reusable view of one adjacency slice: adjacent nodes are {@code nodes[start .. end)} with the
+     * edge kind codes at the same positions in {@code kinds} and the weights of attribute {@code a} in
+     * {@code weights[a]}. One instance per traversal, so walking a patched node costs no allocation.
+     */
+    static final class Slice {
+        int[] nodes;
+        byte[] kinds;
+        float[][] weights;
+        int start;
+        int end;
+
+        // scratch for undirected walks: the in-edge view and the merged adjacency, grown on demand
+        private Slice incoming;
+        private int[] mergedNodes = new int[0];
+        private byte[] mergedKinds = new byte[0];
+        private float[][] mergedWeights = new float[0][];
+
+        private Slice incoming() {
+            if (incoming == null) {
+                incoming = new Slice();
+            }
+            return incoming;
+        }
+
+        private int[] merged(int size, int weightCount) {
+            if (mergedNodes.length < size || mergedWeights.length != weightCount) {
+                mergedNodes = new int[Math.max(size, mergedNodes.length << 1)];
+                mergedKinds = new byte[mergedNodes.length];
+                mergedWeights = new float[weightCount][mergedNodes.length];
+            }
+            return mergedNodes;
+        }
+
+        private void set(int[] nodes, byte[] kinds, float[][] weights, int start, int end) {
+            this.nodes = nodes;
+            this.kinds = kinds;
+            this.weights = weights;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
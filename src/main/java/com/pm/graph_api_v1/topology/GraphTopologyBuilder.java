@@ -0,0 +1,144 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.domain.EdgeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates edges and builds a {@link GraphTopology}.
+ * <p>
+ * Edges must be added ordered by (src, dst, kind code): the counting sort in {@link #build()} is stable,
+ * so every adjacency slice ends up sorted by destination id, then kind code, which BFS relies on for its
+ * lexicographic tie-break. The reverse (in-edge) index is built the same way, so every in-edge
+ * slice is sorted by source id. Kind bytes are the {@code edge_kinds} codes, so slices are ordered
+ * like the table and the patcher can keep that order for kinds added later.
+ * <p>
+ * Each edge carries one weight per configured weight attribute; the weights are permuted together
+ * with the edges into {@code float[]} columns aligned with both indexes.
+ */
+public final class GraphTopologyBuilder {
+
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+    private final List<String> nodeIds = new ArrayList<>();
+    private final Map<String, Integer> kindIndex = new HashMap<>();
+    private final String[] kindNames = new String[EdgeType.MAX_CODES];
+
+    private final String[] weightAttrs;
+    private int[] srcs = new int[1024];
+    private int[] dsts = new int[1024];
+    private byte[] kinds = new byte[1024];
+    private final float[][] weights;
+    private int size;
+
+    public GraphTopologyBuilder(List<String> weightAttrs) {
+        this.weightAttrs = weightAttrs.toArray(String[]::new);
+        this.weights = new float[this.weightAttrs.length][1024];
+    }
+
+    /**
+     * @param kindCode    {@code edge_kinds} code of {@code kind}
+     * @param edgeWeights one value per weight attribute, in the order given to the constructor
+     */
+    public void addEdge(String src, String dst, int kindCode, String kind, float[] edgeWeights) {
+        if (size == srcs.length) {
+            int capacity = srcs.length << 1;
+            srcs = Arrays.copyOf(srcs, capacity);
+            dsts = Arrays.copyOf(dsts, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            for (int a = 0; a < weights.length; a++) {
+                weights[a] = Arrays.copyOf(weights[a], capacity);
+            }
+        }
+        srcs[size] = encodeNode(src);
+        dsts[size] = encodeNode(dst);
+        kinds[size] = encodeKind(kindCode, kind);
+        for (int a = 0; a < weights.length; a++) {
+            weights[a][size] = edgeWeights[a];
+        }
+        size++;
+    }
+
+    public GraphTopology build() {
+        int nodeCount = nodeIds.size();
+        int[] offsets = new int[nodeCount + 1];
+        int[] targets = new int[size];
+        byte[] outKinds = new byte[size];
+        float[][] outWeights = new float[weights.length][size];
+        sortInto(srcs, dsts, nodeCount, offsets, targets, outKinds, outWeights);
+
+        int[] inOffsets = new int[nodeCount + 1];
+        int[] sources = new int[size];
+        byte[] inKinds = new byte[size];
+        float[][] inWeights = new float[weights.length][size];
+        sortInto(dsts, srcs, nodeCount, inOffsets, sources, inKinds, inWeights);
+
+        return new GraphTopology(
+                nodeIds.toArray(String[]::new),
+                Map.copyOf(nodeIndex),
+                offsets,
+                targets,
+                outKinds,
+                inOffsets,
+                sources,
+                inKinds,
+                kindNames.clone(),
+                Map.copyOf(kindIndex),
+                weightAttrs,
+                outWeights,
+                inWeights
+        );
+    }
+
+    /**
+     * Stable counting sort of the edge list by {@code keys} into CSR arrays.
+     */
+    private void sortInto(int[] keys,
+                          int[] values,
+                          int nodeCount,
+                          int[] offsets,
+                          int[] adjacent,
+                          byte[] adjacentKinds,
+                          float[][] adjacentWeights) {
+        for (int i = 0; i < size; i++) {
+            offsets[keys[i] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int i = 0; i < size; i++) {
+            int pos = next[keys[i]]++;
+            adjacent[pos] = values[i];
+            adjacentKinds[pos] = kinds[i];
+            for (int a = 0; a < weights.length; a++) {
+                adjacentWeights[a][pos] = weights[a][i];
+            }
+        }
+    }
+
+    private int encodeNode(String id) {
+        Integer idx = nodeIndex.get(id);
+        if (idx != null) {
+            return idx;
+        }
+        int next = nodeIds.size();
+        nodeIndex.put(id, next);
+        nodeIds.add(id);
+        return next;
+    }
+
+    private byte encodeKind(int code, String kind) {
+        if (code < 0 || code >= EdgeType.MAX_CODES) {
+            throw new IllegalStateException("Edge kind code " + code + " is out of range (max " + EdgeType.MAX_CODES + ")");
+        }
+        if (kindNames[code] == null) {
+            kindNames[code] = kind;
+            kindIndex.put(kind, code);
+        }
+        return (byte) code;
+    }
+}
@@ -0,0 +1,318 @@
+package com.pm.graph_api_v1.topology;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.config.TopologyProperties;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.domain.PathAlgorithm;
+import com.pm.graph_api_v1.domain.PathObjective;
+import com.pm.graph_api_v1.domain.WeightedPath;
+import com.pm.graph_api_v1.repository.DuckDbGraphRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds the in-memory CSR snapshot of the graph and answers traversals against it.
+ * Snapshots are immutable and swapped atomically, both on {@link #reload()} and on {@link #applyDelta}.
+ * <p>
+ * Live edits go into a copy-on-write overlay over the base CSR, which {@link #compact()} folds into fresh
+ * arrays in memory. A reload records every delta applied while the {@code edges} table is being read and
+ * replays them onto the new base before swapping it in, so edits racing with the scan are never lost
+ * (replays are idempotent); compaction does the same while it copies. A delta that fails to patch leaves
+ * the snapshot stale, and the next compaction reloads it from the table instead.
+ */
+@Component
+public class GraphTopologyEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphTopologyEngine.class);
+
+    private final DuckDbGraphRepository repo;
+    private final TopologyProperties properties;
+    private final ObjectMapper objectMapper;
+    private volatile GraphTopology topology;
+
+    private final Object deltaLock = new Object();
+    // deltas applied during a running reload or compaction, replayed onto the freshly built base; null otherwise
+    private List<GraphDelta> replayLog;
+    // a committed delta is missing from the snapshot because patching it failed
+    private volatile boolean stale;
+
+    public GraphTopologyEngine(DuckDbGraphRepository repo, TopologyProperties properties, ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isReady() {
+        return topology != null;
+    }
+
+    public synchronized void reload() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        synchronized (deltaLock) {
+            replayLog = new ArrayList<>();
+            stale = false;
+        }
+        GraphTopology loaded;
+        try {
+            GraphTopologyBuilder builder = new GraphTopologyBuilder(properties.weightAttrs());
+            repo.forEachEdge(properties.weightAttrs(), builder::addEdge);
+            loaded = builder.build();
+        } catch (RuntimeException e) {
+            synchronized (deltaLock) {
+                replayLog = null;
+            }
+            throw e;
+        }
+        int replayed;
+        synchronized (deltaLock) {
+            replayed = replayLog.size();
+            for (GraphDelta delta : replayLog) {
+                loaded = GraphTopologyPatcher.apply(loaded, delta, this::edgeWeights, repo::edgeKindCode);
+            }
+            replayLog = null;
+            topology = loaded;
+        }
+        log.info("Loaded graph topology: {} nodes, {} edges in {} ms ({} deltas replayed)",
+                loaded.nodeCount(), loaded.edgeCount(), (System.nanoTime() - started) / 1_000_000, replayed);
+    }
+
+    /**
+     * Applies an already persisted edit to the current snapshot. Callers must apply deltas in the
+     * order they were committed to DuckDB.
+     */
+    public void applyDelta(GraphDelta delta) {
+        if (!delta.touchesEdges()) {
+            return;
+        }
+        synchronized (deltaLock) {
+            GraphTopology graph = topology;
+            if (graph != null) {
+                try {
+                    topology = GraphTopologyPatcher.apply(graph, delta, this::edgeWeights, repo::edgeKindCode);
+                } catch (RuntimeException e) {
+                    stale = true;
+                    throw e;
+                }
+            }
+            if (replayLog != null) {
+                replayLog.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Folds the overlay into a fresh CSR once it is non-empty, so traversals go back to reading flat arrays.
+     * A stale snapshot is reloaded from the {@code edges} table instead.
+     */
+    @Scheduled(
+            initialDelayString = "${graph.topology.compaction-interval:5m}",
+            fixedDelayString = "${graph.topology.compaction-interval:5m}"
+    )
+    public synchronized void compact() {
+        if (stale) {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Failed to reload stale graph topology, retrying at the next compaction", e);
+            }
+            return;
+        }
+        long started = System.nanoTime();
+        GraphTopology graph;
+        synchronized (deltaLock) {
+            graph = topology;
+            if (graph == null || graph.overlaySize() == 0) {
+                return;
+            }
+            replayLog = new ArrayList<>();
+        }
+        GraphTopology compacted;
+        try {
+            compacted = graph.compact();
+        } catch (RuntimeException e) {
+            synchronized (deltaLock) {
+                replayLog = null;
+            }
+            log.warn("Failed to compact graph topology, keeping the overlay", e);
+            return;
+        }
+        int replayed;
+        synchronized (deltaLock) {
+            replayed = replayLog.size();
+            try {
+                for (GraphDelta delta : replayLog) {
+                    compacted = GraphTopologyPatcher.apply(compacted, delta, this::edgeWeights, repo::edgeKindCode);
+                }
+                topology = compacted;
+            } catch (RuntimeException e) {
+                // the same delta already failed on the live snapshot, which is marked stale
+                log.warn("Failed to replay graph deltas onto the compacted topology, keeping the overlay", e);
+                return;
+            } finally {
+                replayLog = null;
+            }
+        }
+        log.info("Compacted graph topology: {} nodes, {} edges in {} ms ({} deltas replayed)",
+                compacted.nodeCount(), compacted.edgeCount(), (System.nanoTime() - started) / 1_000_000, replayed);
+    }
+
+    /**
+     * @return vertex ids of the shortest path following edges in {@code direction}, or an empty list when there is none
+     */
+    public List<String> shortestPath(String from,
+                                     String to,
+                                     int maxHops,
+                                     Direction direction,
+                                     Set<String> edgeKinds,
+                                     PathAlgorithm algorithm) {
+        GraphTopology graph = requireTopology();
+        int fromIdx = graph.indexOf(from);
+        int toIdx = graph.indexOf(to);
+        if (fromIdx < 0 || toIdx < 0) {
+            return List.of();
+        }
+        boolean[] allowedKinds = graph.kindFilter(edgeKinds);
+        int supernodeDegree = properties.supernodeDegree();
+        int[] path = algorithm == PathAlgorithm.BFS
+                ? BfsPathFinder.find(graph, fromIdx, toIdx, maxHops, direction, allowedKinds, supernodeDegree)
+                : BidirectionalPathFinder.find(graph, fromIdx, toIdx, maxHops, direction, allowedKinds, supernodeDegree);
+        return toIds(graph, path);
+    }
+
+    /**
+     * Whether {@code attr} is loaded as an edge weight, so {@link #weightedShortestPath} can use it.
+     */
+    public boolean hasWeight(String attr) {
+        return properties.weightAttrs().contains(attr);
+    }
+
+    /**
+     * @return best path by the {@code weightAttr} edge weights under {@code objective}, or {@link WeightedPath#NONE}
+     */
+    public WeightedPath weightedShortestPath(String from,
+                                             String to,
+                                             int maxHops,
+                                             Direction direction,
+                                             Set<String> edgeKinds,
+                                             String weightAttr,
+                                             PathObjective objective) {
+        GraphTopology graph = requireTopology();
+        int weightIndex = graph.weightIndex(weightAttr);
+        if (weightIndex < 0) {
+            throw new IllegalArgumentException("Edge attribute is not loaded as a weight: " + weightAttr);
+        }
+        int fromIdx = graph.indexOf(from);
+        int toIdx = graph.indexOf(to);
+        if (fromIdx < 0 || toIdx < 0) {
+            return WeightedPath.NONE;
+        }
+        WeightedPathFinder.Found found = WeightedPathFinder.find(graph, fromIdx, toIdx, maxHops, direction,
+                graph.kindFilter(edgeKinds), properties.supernodeDegree(), weightIndex, objective);
+        if (found.path().length == 0) {
+            return WeightedPath.NONE;
+        }
+        List<String> vertices = toIds(graph, found.path());
+        List<EdgeRef> edges = new ArrayList<>(found.kinds().length);
+        for (int i = 0; i < found.kinds().length; i++) {
+            String kind = graph.kindName(found.kinds()[i]);
+            edges.add(found.inbound()[i]
+                    ? new EdgeRef(vertices.get(i + 1), vertices.get(i), kind)
+                    : new EdgeRef(vertices.get(i), vertices.get(i + 1), kind));
+        }
+        return new WeightedPath(vertices, edges, found.cost());
+    }
+
+    public Neighborhood expand(Collection<String> seeds, int depth, int fanOut, int maxNodes, Set<String> edgeKinds) {
+        GraphTopology graph = requireTopology();
+        return NeighborhoodExpander.expand(graph, seeds, depth, fanOut, maxNodes, graph.kindFilter(edgeKinds),
+                properties.supernodeDegree());
+    }
+
+    /**
+     * {@code node} with its out- and in-degree in the current snapshot, live edits included (zeros for a node
+     * without edges); unchanged when no snapshot is loaded.
+     */
+    public NodeDto withDegrees(NodeDto node) {
+        GraphTopology graph = topology;
+        if (graph == null) {
+            return node;
+        }
+        int idx = graph.indexOf(node.id());
+        return idx < 0 ? node.withDegrees(0, 0) : node.withDegrees(graph.outDegree(idx), graph.inDegree(idx));
+    }
+
+    /**
+     * Seen-set bound to the current snapshot; works (less compactly) when no snapshot is loaded.
+     */
+    public NodeIdSet newNodeIdSet() {
+        return new NodeIdSet(topology);
+    }
+
+    /**
+     * Weights of an edge added by a delta, read from its attrs the way {@link DuckDbGraphRepository#forEachEdge}
+     * reads them from the table: numbers and numeric strings count, anything else is NaN.
+     */
+    private float[] edgeWeights(EdgeDto edge) {
+        List<String> attrs = properties.weightAttrs();
+        float[] weights = new float[attrs.size()];
+        Arrays.fill(weights, Float.NaN);
+        if (attrs.isEmpty() || edge.attrs() == null) {
+            return weights;
+        }
+        JsonNode tree;
+        try {
+            tree = objectMapper.readTree(edge.attrs().json());
+        } catch (JsonProcessingException e) {
+            return weights;
+        }
+        for (int a = 0; a < weights.length; a++) {
+            JsonNode value = tree.get(attrs.get(a));
+            if (value == null) {
+                continue;
+            }
+            if (value.isNumber()) {
+                weights[a] = value.floatValue();
+            } else if (value.isTextual()) {
+                try {
+                    weights[a] = Float.parseFloat(value.textValue().trim());
+                } catch (NumberFormatException ignored) {
+                    // not a number, same as TRY_CAST returning NULL
+                }
+            }
+        }
+        return weights;
+    }
+
+    private GraphTopology requireTopology() {
+        GraphTopology graph = topology;
+        if (graph == null) {
+            throw new IllegalStateException("Graph topology is not loaded");
+        }
+        return graph;
+    }
+
+    private static List<String> toIds(GraphTopology graph, int[] path) {
+        List<String> ids = new ArrayList<>(path.length);
+        for (int idx : path) {
+            ids.add(graph.nodeId(idx));
+        }
+        return ids;
+    }
+}
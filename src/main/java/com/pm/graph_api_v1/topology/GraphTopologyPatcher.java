@@ -0,0 +1,321 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.domain.EdgeRef;
+import com.pm.graph_api_v1.domain.EdgeType;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.topology.AdjacencyPatches.Adjacency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Applies a {@link GraphDelta} to a snapshot and returns a new one; the input snapshot is not modified.
+ * <p>
+ * Only the slices of touched nodes are copied, edited and stored as overlay patches, so the cost is
+ * proportional to the degree of the touched nodes, not to the graph size. Edits keep slices sorted by
+ * (adjacent id, kind code) as the builder does, so traversal tie-breaks stay identical to a full reload;
+ * a kind first seen in a delta takes the code it was stored with, never one of its own.
+ * Additions of an existing (src, dst, kind) only replace its weights and removals of missing edges are
+ * no-ops, which makes replaying a delta over a snapshot that already contains it harmless.
+ */
+final class GraphTopologyPatcher {
+
+    private final GraphTopology graph;
+    private final Function<String, Integer> kindCodes;
+    private String[] kindNames;
+    private Map<String, Integer> kindIndex;
+    private List<String> extraIds;
+    private Map<String, Integer> extraIndex;
+    private final Map<Integer, EdgeList> out = new HashMap<>();
+    private final Map<Integer, EdgeList> in = new HashMap<>();
+    private int edgeCount;
+
+    private GraphTopologyPatcher(GraphTopology graph, Function<String, Integer> kindCodes) {
+        this.graph = graph;
+        this.kindCodes = kindCodes;
+        this.kindNames = graph.kindNames();
+        this.kindIndex = graph.kindIndex();
+        this.extraIds = graph.extraIds();
+        this.extraIndex = graph.extraIndex();
+        this.edgeCount = graph.edgeCount();
+    }
+
+    /**
+     * @param edgeWeights values of the snapshot's weight attributes taken from an added edge's attrs
+     * @param kindCodes   {@code edge_kinds} code of a kind name, null when it was never stored
+     */
+    static GraphTopology apply(GraphTopology graph,
+                               GraphDelta delta,
+                               Function<EdgeDto, float[]> edgeWeights,
+                               Function<String, Integer> kindCodes) {
+        if (!delta.touchesEdges()) {
+            return graph;
+        }
+        GraphTopologyPatcher patcher = new GraphTopologyPatcher(graph, kindCodes);
+        for (String nodeId : delta.deleteNodes()) {
+            patcher.deleteNode(nodeId);
+        }
+        for (EdgeRef edge : delta.removeEdges()) {
+            patcher.removeEdge(edge);
+        }
+        for (EdgeDto edge : delta.addEdges()) {
+            patcher.addEdge(edge.src(), edge.dst(), edge.kind(), edgeWeights.apply(edge));
+        }
+        return patcher.build();
+    }
+
+    private void deleteNode(String nodeId) {
+        int node = indexOf(nodeId);
+        if (node < 0) {
+            return;
+        }
+        EdgeList outgoing = outList(node);
+        for (int i = 0; i < outgoing.size; i++) {
+            inList(outgoing.nodes[i]).removeAll(node);
+        }
+        edgeCount -= outgoing.size;
+        outgoing.clear();
+
+        EdgeList incoming = inList(node);
+        for (int i = 0; i < incoming.size; i++) {
+            edgeCount -= outList(incoming.nodes[i]).removeAll(node);
+        }
+        incoming.clear();
+    }
+
+    private void removeEdge(EdgeRef edge) {
+        int src = indexOf(edge.src());
+        int dst = indexOf(edge.dst());
+        if (src < 0 || dst < 0) {
+            return;
+        }
+        if (edge.kind() == null) {
+            edgeCount -= outList(src).removeAll(dst);
+            inList(dst).removeAll(src);
+            return;
+        }
+        Integer kind = kindIndex.get(edge.kind());
+        if (kind == null) {
+            return;
+        }
+        edgeCount -= outList(src).remove(dst, (byte) kind.intValue());
+        inList(dst).remove(src, (byte) kind.intValue());
+    }
+
+    private void addEdge(String srcId, String dstId, String kindName, float[] weights) {
+        int src = encodeNode(srcId);
+        int dst = encodeNode(dstId);
+        byte kind = encodeKind(kindName);
+        boolean added = outList(src).insert(dst, kind, weights);
+        inList(dst).insert(src, kind, weights);
+        if (added) {
+            edgeCount++;
+        }
+    }
+
+    private GraphTopology build() {
+        return graph.withOverlay(kindNames, kindIndex, extraIds, extraIndex,
+                graph.outPatches().with(toPatches(out)), graph.inPatches().with(toPatches(in)), edgeCount);
+    }
+
+    private static Map<Integer, Adjacency> toPatches(Map<Integer, EdgeList> lists) {
+        Map<Integer, Adjacency> patches = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Integer, EdgeList> entry : lists.entrySet()) {
+            patches.put(entry.getKey(), entry.getValue().toAdjacency());
+        }
+        return patches;
+    }
+
+    private EdgeList outList(int node) {
+        return out.computeIfAbsent(node, n -> {
+            GraphTopology.Slice slice = new GraphTopology.Slice();
+            graph.out(n, slice);
+            return new EdgeList(slice);
+        });
+    }
+
+    private EdgeList inList(int node) {
+        return in.computeIfAbsent(node, n -> {
+            GraphTopology.Slice slice = new GraphTopology.Slice();
+            graph.in(n, slice);
+            return new EdgeList(slice);
+        });
+    }
+
+    private int indexOf(String nodeId) {
+        int idx = graph.indexOf(nodeId);
+        if (idx >= 0) {
+            return idx;
+        }
+        Integer extra = extraIndex.get(nodeId);
+        return extra == null ? -1 : extra;
+    }
+
+    private String nodeId(int index) {
+        int baseCount = graph.baseNodeCount();
+        return index < baseCount ? graph.nodeId(index) : extraIds.get(index - baseCount);
+    }
+
+    private int encodeNode(String nodeId) {
+        int idx = indexOf(nodeId);
+        if (idx >= 0) {
+            return idx;
+        }
+        if (extraIds == graph.extraIds()) {
+            extraIds = new ArrayList<>(extraIds);
+            extraIndex = new HashMap<>(extraIndex);
+        }
+        idx = graph.baseNodeCount() + extraIds.size();
+        extraIds.add(nodeId);
+        extraIndex.put(nodeId, idx);
+        return idx;
+    }
+
+    private byte encodeKind(String kind) {
+        Integer code = kindIndex.get(kind);
+        if (code == null) {
+            // the delta is committed before it reaches the topology, so its kinds are in edge_kinds
+            code = kindCodes.apply(kind);
+            if (code == null || code < 0 || code >= EdgeType.MAX_CODES) {
+                throw new IllegalStateException("Edge kind " + kind + " has no code in edge_kinds: " + code);
+            }
+            kindNames = Arrays.copyOf(kindNames, EdgeType.MAX_CODES);
+            kindNames[code] = kind;
+            kindIndex = new HashMap<>(kindIndex);
+            kindIndex.put(kind, code);
+        }
+        return (byte) code.intValue();
+    }
+
+    private int compare(int leftNode, byte leftKind, int rightNode, byte rightKind) {
+        if (leftNode != rightNode) {
+            int byId = nodeId(leftNode).compareTo(nodeId(rightNode));
+            if (byId != 0) {
+                return byId;
+            }
+        }
+        return Integer.compare(leftKind & 0xFF, rightKind & 0xFF);
+    }
+
+    /**
+     * Editable copy of one adjacency slice.
+     */
+    private final class EdgeList {
+        private int[] nodes;
+        private byte[] kinds;
+        private final float[][] weights;
+        private int size;
+
+        EdgeList(GraphTopology.Slice slice) {
+            size = slice.end - slice.start;
+            nodes = Arrays.copyOfRange(slice.nodes, slice.start, slice.end);
+            kinds = Arrays.copyOfRange(slice.kinds, slice.start, slice.end);
+            weights = new float[slice.weights.length][];
+            for (int a = 0; a < weights.length; a++) {
+                weights[a] = Arrays.copyOfRange(slice.weights[a], slice.start, slice.end);
+            }
+        }
+
+        /**
+         * Adds the edge, or replaces the weights of the one already present.
+         *
+         * @return false when the edge is already present
+         */
+        boolean insert(int node, byte kind, float[] edgeWeights) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(nodes[mid], kinds[mid], node, kind);
+                if (cmp == 0) {
+                    setWeights(mid, edgeWeights);
+                    return false;
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (size == nodes.length) {
+                int capacity = Math.max(4, size << 1);
+                nodes = Arrays.copyOf(nodes, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                for (int a = 0; a < weights.length; a++) {
+                    weights[a] = Arrays.copyOf(weights[a], capacity);
+                }
+            }
+            System.arraycopy(nodes, low, nodes, low + 1, size - low);
+            System.arraycopy(kinds, low, kinds, low + 1, size - low);
+            for (float[] column : weights) {
+                System.arraycopy(column, low, column, low + 1, size - low);
+            }
+            nodes[low] = node;
+            kinds[low] = kind;
+            setWeights(low, edgeWeights);
+            size++;
+            return true;
+        }
+
+        private void setWeights(int pos, float[] edgeWeights) {
+            for (int a = 0; a < weights.length; a++) {
+                weights[a][pos] = edgeWeights[a];
+            }
+        }
+
+        private void move(int from, int to) {
+            nodes[to] = nodes[from];
+            kinds[to] = kinds[from];
+            for (float[] column : weights) {
+                column[to] = column[from];
+            }
+        }
+
+        /**
+         * @return number of removed entries
+         */
+        int remove(int node, byte kind) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] != node || kinds[i] != kind) {
+                    move(i, kept++);
+                }
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        }
+
+        /**
+         * @return number of removed entries
+         */
+        int removeAll(int node) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] != node) {
+                    move(i, kept++);
+                }
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        Adjacency toAdjacency() {
+            float[][] trimmed = new float[weights.length][];
+            for (int a = 0; a < weights.length; a++) {
+                trimmed[a] = Arrays.copyOf(weights[a], size);
+            }
+            return new Adjacency(Arrays.copyOf(nodes, size), Arrays.copyOf(kinds, size), trimmed);
+        }
+    }
+}
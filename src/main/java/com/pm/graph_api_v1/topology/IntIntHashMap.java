@@ -0,0 +1,122 @@
+package com.pm.graph_api_v1.topology;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative int keys to int values.
+ * Used for per-query visited state so a search only pays for the nodes it touches, and as the
+ * node index of {@link AdjacencyPatches}.
+ */
+final class IntIntHashMap {
+
+    static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    int get(int key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == EMPTY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Associates the value with the key unless the key is already present.
+     *
+     * @return true when the key was inserted
+     */
+    boolean putIfAbsent(int key, int value) {
+        int slot = mix(key) & mask;
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return false;
+            }
+            if (k == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length << 1];
+        values = new int[oldValues.length << 1];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key == EMPTY) {
+                continue;
+            }
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Associates the value with the key, replacing any previous value.
+     */
+    void put(int key, int value) {
+        if (!putIfAbsent(key, value)) {
+            int slot = mix(key) & mask;
+            while (keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            values[slot] = value;
+        }
+    }
+
+    IntIntHashMap copy() {
+        IntIntHashMap copy = new IntIntHashMap(1);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.mask = mask;
+        copy.size = size;
+        return copy;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
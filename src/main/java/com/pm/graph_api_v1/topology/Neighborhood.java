@@ -0,0 +1,14 @@
+package com.pm.graph_api_v1.topology;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a bounded k-hop traversal.
+ *
+ * @param hops      visited node ids in visiting order with their hop distance
+ * @param expanded  nodes whose out-edges were followed
+ * @param truncated whether the fan-out cap, the node budget or the deadline cut the traversal
+ * @param timedOut  whether the request deadline stopped the traversal early
+ */
+public record Neighborhood(Map<String, Integer> hops, List<String> expanded, boolean truncated, boolean timedOut) {}
@@ -0,0 +1,95 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.concurrency.Deadline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.pm.graph_api_v1.topology.BfsPathFinder.allowed;
+
+/**
+ * Level-by-level out-edge expansion over the CSR snapshot.
+ * <p>
+ * Frontier nodes are expanded in id order and each takes its first {@code fanOut} allowed edges in
+ * (dst, kind) order, so the traversal picks exactly the edges the per-seed SQL window would return.
+ * Supernodes reached from a seed are kept in the result but not expanded further, and the result is then
+ * marked truncated.
+ * Once the request {@link Deadline} passes, expansion stops and what has been visited so far is returned.
+ */
+final class NeighborhoodExpander {
+
+    private NeighborhoodExpander() {
+    }
+
+    static Neighborhood expand(GraphTopology graph,
+                               Collection<String> seeds,
+                               int depth,
+                               int fanOut,
+                               int maxNodes,
+                               boolean[] allowedKinds,
+                               int supernodeDegree) {
+        GraphTopology.Slice out = new GraphTopology.Slice();
+
+        Map<String, Integer> hops = new LinkedHashMap<>();
+        IntIntHashMap seen = new IntIntHashMap(64);
+        List<Integer> frontier = new ArrayList<>();
+        for (String seed : seeds) {
+            hops.putIfAbsent(seed, 0);
+            int idx = graph.indexOf(seed);
+            if (idx >= 0 && seen.putIfAbsent(idx, 0)) {
+                frontier.add(idx);
+            }
+        }
+
+        List<String> expanded = new ArrayList<>();
+        boolean truncated = false;
+        boolean timedOut = false;
+        Deadline deadline = Deadline.current();
+        Comparator<Integer> byId = Comparator.comparing(graph::nodeId);
+        for (int level = 1; level <= depth && !frontier.isEmpty() && !timedOut; level++) {
+            frontier.sort(byId);
+            List<Integer> next = new ArrayList<>();
+            for (int i = 0; i < frontier.size(); i++) {
+                if (i % BfsPathFinder.DEADLINE_CHECK_INTERVAL == 0 && deadline.expired()) {
+                    timedOut = true;
+                    break;
+                }
+                int u = frontier.get(i);
+                expanded.add(graph.nodeId(u));
+                int taken = 0;
+                graph.out(u, out);
+                for (int e = out.start; e < out.end; e++) {
+                    if (!allowed(allowedKinds, out.kinds[e])) {
+                        continue;
+                    }
+                    if (taken == fanOut) {
+                        truncated = true;
+                        break;
+                    }
+                    taken++;
+                    int v = out.nodes[e];
+                    if (seen.containsKey(v)) {
+                        continue;
+                    }
+                    if (hops.size() >= maxNodes) {
+                        truncated = true;
+                        continue;
+                    }
+                    seen.putIfAbsent(v, level);
+                    hops.put(graph.nodeId(v), level);
+                    if (!graph.isSupernode(v, supernodeDegree)) {
+                        next.add(v);
+                    } else if (level < depth) {
+                        truncated = true;
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return new Neighborhood(hops, expanded, truncated || timedOut, timedOut);
+    }
+}
@@ -0,0 +1,75 @@
+package com.pm.graph_api_v1.topology;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node indexes keyed by a float priority, kept in parallel primitive arrays so a
+ * relaxation pushes without boxing. There is no decrease-key: a node is pushed again with its better
+ * priority, and callers skip stale entries when they pop.
+ */
+final class NodeHeap {
+
+    private int[] nodes;
+    private float[] keys;
+    private int size;
+
+    NodeHeap(int expected) {
+        nodes = new int[Math.max(16, expected)];
+        keys = new float[nodes.length];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(int node, float key) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size << 1);
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        int pos = size++;
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            nodes[pos] = nodes[parent];
+            keys[pos] = keys[parent];
+            pos = parent;
+        }
+        nodes[pos] = node;
+        keys[pos] = key;
+    }
+
+    /**
+     * @return priority of the node {@link #pop} returns next
+     */
+    float peekKey() {
+        return keys[0];
+    }
+
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastKey = keys[size];
+        int pos = 0;
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (lastKey <= keys[child]) {
+                break;
+            }
+            nodes[pos] = nodes[child];
+            keys[pos] = keys[child];
+            pos = child;
+        }
+        nodes[pos] = lastNode;
+        keys[pos] = lastKey;
+        return top;
+    }
+}
@@ -0,0 +1,75 @@
+package com.pm.graph_api_v1.topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Insertion-ordered set of node ids for streaming responses.
+ * <p>
+ * Ids known to the topology snapshot are kept as dense indexes (a bit plus an int each),
+ * so the per-request footprint does not grow with id length; anything else falls back to a hash set.
+ */
+public final class NodeIdSet {
+
+    private final GraphTopology graph;
+    private final BitSet seen = new BitSet();
+    private int[] order = new int[64];
+    private int size;
+    private final Set<String> unknown = new LinkedHashSet<>();
+
+    NodeIdSet(GraphTopology graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @return true when the id was not seen before
+     */
+    public boolean add(String nodeId) {
+        int idx = graph == null ? -1 : graph.indexOf(nodeId);
+        if (idx < 0) {
+            return unknown.add(nodeId);
+        }
+        if (seen.get(idx)) {
+            return false;
+        }
+        seen.set(idx);
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size << 1);
+        }
+        order[size++] = idx;
+        return true;
+    }
+
+    public int size() {
+        return size + unknown.size();
+    }
+
+    /**
+     * Hands the ids out in chunks of at most {@code batchSize}, snapshot ids first.
+     */
+    public void forEachBatch(int batchSize, Consumer<List<String>> consumer) {
+        List<String> batch = new ArrayList<>(Math.min(batchSize, size()));
+        for (int i = 0; i < size; i++) {
+            batch.add(graph.nodeId(order[i]));
+            if (batch.size() == batchSize) {
+                consumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        for (String nodeId : unknown) {
+            batch.add(nodeId);
+            if (batch.size() == batchSize) {
+                consumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.pm.graph_api_v1.topology;
+
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.PathObjective;
+
+import java.util.Arrays;
+
+/**
+ * Best path over a {@link GraphTopology} by one weight column, label-setting (Dijkstra) over a {@link NodeHeap}.
+ * <p>
+ * Both objectives share one search over priorities where lower is better: {@link PathObjective#MIN} sums the
+ * weights, {@link PathObjective#MAX} keeps the negated bottleneck ({@code max(priority, -weight)}), which is
+ * monotone along a path just like a sum of non-negative weights. Edges without a numeric weight are not
+ * followed, and neither are negative ones under {@code MIN}, which Dijkstra cannot handle.
+ * <p>
+ * The search runs over (node, hops used) labels rather than nodes, so the hop bound never hides a path: a
+ * node reached cheaply over many hops may be reached again, at a higher cost, over fewer, and only that label
+ * can still be extended to the target within {@code maxHops}. Labels pop in priority order, so a label is
+ * dominated, and dropped, once its node was settled with at most as many hops; each node is settled at most
+ * {@code maxHops + 1} times. Supernodes other than the endpoints are not passed through, and the request
+ * {@link Deadline} is checked as in {@link BfsPathFinder}.
+ * <p>
+ * Every hop remembers the kind and the side (out- or in-edge) of the edge it was relaxed through, so callers
+ * can show the exact edge whose weight went into the cost when a pair is linked by several kinds.
+ */
+final class WeightedPathFinder {
+
+    /**
+     * @param kinds   kind code of the edge taken for hop {@code i}, from {@code path[i]} to {@code path[i + 1]}
+     * @param inbound whether that edge is stored the other way round, as an in-edge of {@code path[i]}
+     */
+    record Found(int[] path, byte[] kinds, boolean[] inbound, float cost) {
+    }
+
+    static final Found NOT_FOUND = new Found(BfsPathFinder.NO_PATH, new byte[0], new boolean[0], 0);
+
+    private WeightedPathFinder() {
+    }
+
+    static Found find(GraphTopology graph,
+                      int from,
+                      int to,
+                      int maxHops,
+                      Direction direction,
+                      boolean[] allowedKinds,
+                      int supernodeDegree,
+                      int weightIndex,
+                      PathObjective objective) {
+        boolean bottleneck = objective == PathObjective.MAX;
+        float start = bottleneck ? Float.NEGATIVE_INFINITY : 0f;
+        GraphTopology.Slice out = new GraphTopology.Slice();
+
+        if (from == to) {
+            return selfLoop(graph, from, direction, allowedKinds, weightIndex, bottleneck, start, out);
+        }
+
+        Labels labels = new Labels(64);
+        // fewest hops each node was settled with
+        IntIntHashMap settledHops = new IntIntHashMap(64);
+        // cheapest label pushed per node and its hops: a new label no cheaper and no shorter is not pushed
+        IntIntHashMap pushedCost = new IntIntHashMap(64);
+        IntIntHashMap pushedHops = new IntIntHashMap(64);
+        NodeHeap heap = new NodeHeap(64);
+        heap.push(labels.add(from, 0, -1, (byte) 0, false), start);
+        Deadline deadline = Deadline.current();
+        int expanded = 0;
+
+        while (!heap.isEmpty()) {
+            float priority = heap.peekKey();
+            int label = heap.pop();
+            int u = labels.nodes[label];
+            int depth = labels.hops[label];
+            int settled = settledHops.get(u);
+            if (settled != IntIntHashMap.MISSING && settled <= depth) {
+                continue;
+            }
+            settledHops.put(u, depth);
+            if (u == to) {
+                return labels.found(label, cost(priority, bottleneck));
+            }
+            if (expanded++ % BfsPathFinder.DEADLINE_CHECK_INTERVAL == 0) {
+                deadline.check();
+            }
+            if (depth >= maxHops) {
+                continue;
+            }
+            int next = depth + 1;
+            // out- and in-edges are walked one side at a time, so every label knows which side it came from
+            for (int side = 0; side < 2; side++) {
+                boolean inbound = side == 1;
+                if (inbound ? direction == Direction.OUT : direction == Direction.IN) {
+                    continue;
+                }
+                if (inbound) {
+                    graph.in(u, out);
+                } else {
+                    graph.out(u, out);
+                }
+                float[] weights = out.weights[weightIndex];
+                for (int e = out.start; e < out.end; e++) {
+                    if (!BfsPathFinder.allowed(allowedKinds, out.kinds[e])) {
+                        continue;
+                    }
+                    int v = out.nodes[e];
+                    float weight = weights[e];
+                    if (!usable(weight, bottleneck)) {
+                        continue;
+                    }
+                    int vSettled = settledHops.get(v);
+                    if (vSettled != IntIntHashMap.MISSING && vSettled <= next) {
+                        continue;
+                    }
+                    float candidate = relax(priority, weight, bottleneck);
+                    int knownCost = pushedCost.get(v);
+                    if (knownCost != IntIntHashMap.MISSING && candidate >= Float.intBitsToFloat(knownCost)
+                            && next >= pushedHops.get(v)) {
+                        continue;
+                    }
+                    if (v != to && graph.isSupernode(v, supernodeDegree)) {
+                        continue;
+                    }
+                    if (knownCost == IntIntHashMap.MISSING || candidate < Float.intBitsToFloat(knownCost)) {
+                        pushedCost.put(v, Float.floatToRawIntBits(candidate));
+                        pushedHops.put(v, next);
+                    }
+                    heap.push(labels.add(v, next, label, out.kinds[e], inbound), candidate);
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static Found selfLoop(GraphTopology graph,
+                                  int node,
+                                  Direction direction,
+                                  boolean[] allowedKinds,
+                                  int weightIndex,
+                                  boolean bottleneck,
+                                  float start,
+                                  GraphTopology.Slice out) {
+        // a self-loop is both an out- and an in-edge of the node: one side is enough
+        boolean inbound = direction == Direction.IN;
+        if (inbound) {
+            graph.in(node, out);
+        } else {
+            graph.out(node, out);
+        }
+        float[] weights = out.weights[weightIndex];
+        float bestPriority = Float.POSITIVE_INFINITY;
+        byte bestKind = 0;
+        for (int e = out.start; e < out.end; e++) {
+            if (out.nodes[e] == node && BfsPathFinder.allowed(allowedKinds, out.kinds[e])
+                    && usable(weights[e], bottleneck)) {
+                float priority = relax(start, weights[e], bottleneck);
+                if (priority < bestPriority) {
+                    bestPriority = priority;
+                    bestKind = out.kinds[e];
+                }
+            }
+        }
+        return bestPriority == Float.POSITIVE_INFINITY
+                ? NOT_FOUND
+                : new Found(new int[]{node, node}, new byte[]{bestKind}, new boolean[]{inbound},
+                        cost(bestPriority, bottleneck));
+    }
+
+    private static boolean usable(float weight, boolean bottleneck) {
+        return bottleneck ? !Float.isNaN(weight) : weight >= 0;
+    }
+
+    private static float relax(float priority, float weight, boolean bottleneck) {
+        // + 0f turns -0f into 0f: -0f has the bits of IntIntHashMap.MISSING
+        return (bottleneck ? Math.max(priority, -weight) : priority + weight) + 0f;
+    }
+
+    private static float cost(float priority, boolean bottleneck) {
+        return bottleneck ? -priority : priority;
+    }
+
+    /**
+     * Search labels in parallel arrays: the node, the hops used to reach it, the label it was reached from
+     * and the edge it was reached over.
+     */
+    private static final class Labels {
+        int[] nodes;
+        int[] hops;
+        int[] parents;
+        byte[] kinds;
+        boolean[] inbound;
+        int size;
+
+        Labels(int expected) {
+            nodes = new int[expected];
+            hops = new int[expected];
+            parents = new int[expected];
+            kinds = new byte[expected];
+            inbound = new boolean[expected];
+        }
+
+        int add(int node, int hopCount, int parent, byte kind, boolean reversed) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size << 1);
+                hops = Arrays.copyOf(hops, size << 1);
+                parents = Arrays.copyOf(parents, size << 1);
+                kinds = Arrays.copyOf(kinds, size << 1);
+                inbound = Arrays.copyOf(inbound, size << 1);
+            }
+            nodes[size] = node;
+            hops[size] = hopCount;
+            parents[size] = parent;
+            kinds[size] = kind;
+            inbound[size] = reversed;
+            return size++;
+        }
+
+        Found found(int label, float cost) {
+            int length = hops[label];
+            int[] path = new int[length + 1];
+            byte[] hopKinds = new byte[length];
+            boolean[] hopInbound = new boolean[length];
+            for (int i = length, l = label; i >= 0; i--, l = parents[l]) {
+                path[i] = nodes[l];
+                if (i > 0) {
+                    hopKinds[i - 1] = kinds[l];
+                    hopInbound[i - 1] = inbound[l];
+                }
+            }
+            return new Found(path, hopKinds, hopInbound, cost);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+-- flags: JSON text -> VARCHAR[], read through getArray without a JSON parse per row.
+-- DuckDB cannot ALTER a table that has indexes, so both tables are rebuilt as in V2.
+
+DROP TABLE IF EXISTS nodes_new;
+
+CREATE TABLE nodes_new (
+    id VARCHAR PRIMARY KEY,
+    kind VARCHAR NOT NULL,
+    label VARCHAR,
+    attrs JSON,
+    flags VARCHAR[]
+);
+
+INSERT INTO nodes_new (id, kind, label, attrs, flags)
+SELECT id, kind, label, attrs, CAST(flags AS VARCHAR[])
+FROM nodes;
+
+DROP INDEX IF EXISTS idx_nodes_kind;
+DROP TABLE nodes;
+ALTER TABLE nodes_new RENAME TO nodes;
+
+CREATE INDEX IF NOT EXISTS idx_nodes_kind ON nodes(kind);
+
+DROP TABLE IF EXISTS edges_new;
+
+CREATE TABLE edges_new (
+    src VARCHAR,
+    dst VARCHAR,
+    id VARCHAR,
+    kind VARCHAR,
+    attrs JSON,
+    flags VARCHAR[]
+);
+
+INSERT INTO edges_new (src, dst, id, kind, attrs, flags)
+SELECT src, dst, id, kind, attrs, CAST(flags AS VARCHAR[])
+FROM edges;
+
+DROP INDEX IF EXISTS idx_edges_src_kind_dst;
+DROP TABLE edges;
+ALTER TABLE edges_new RENAME TO edges;
+
+CREATE INDEX IF NOT EXISTS idx_edges_src_kind_dst ON edges(src, kind, dst);
@@ -0,0 +1,35 @@
+-- edge kinds: free-text VARCHAR on every row -> UTINYINT code into the edge_kinds dictionary.
+-- Codes are never reused, the application caches the dictionary and appends new kinds.
+-- Rows are rewritten in (src, kind, dst) order, matching the index, so zonemaps prune kind-filtered scans.
+
+CREATE TABLE IF NOT EXISTS edge_kinds (
+    code UTINYINT PRIMARY KEY,
+    name VARCHAR NOT NULL UNIQUE
+);
+
+INSERT INTO edge_kinds (code, name)
+SELECT row_number() OVER (ORDER BY name) - 1, name
+FROM (SELECT DISTINCT COALESCE(NULLIF(kind, ''), 'edge') AS name FROM edges) k;
+
+DROP TABLE IF EXISTS edges_new;
+
+CREATE TABLE edges_new (
+    src VARCHAR,
+    dst VARCHAR,
+    id VARCHAR,
+    kind UTINYINT NOT NULL,
+    attrs JSON,
+    flags VARCHAR[]
+);
+
+INSERT INTO edges_new (src, dst, id, kind, attrs, flags)
+SELECT e.src, e.dst, e.id, k.code, e.attrs, e.flags
+FROM edges e
+JOIN edge_kinds k ON k.name = COALESCE(NULLIF(e.kind, ''), 'edge')
+ORDER BY e.src, k.code, e.dst;
+
+DROP INDEX IF EXISTS idx_edges_src_kind_dst;
+DROP TABLE edges;
+ALTER TABLE edges_new RENAME TO edges;
+
+CREATE INDEX IF NOT EXISTS idx_edges_src_kind_dst ON edges(src, kind, dst);
@@ -0,0 +1,89 @@
+-- node ids: VARCHAR keys repeated in nodes, edges and node_lookup -> BIGINT node_key into the node_keys dictionary.
+-- Keys are assigned in id order here and appended after the maximum later. They are never reused or removed,
+-- so a key stays valid for ids that only appear in paging cursors or deleted rows.
+-- Edge ids equal to the derived src->dst:kind are stored as NULL and rebuilt when read.
+
+CREATE TABLE IF NOT EXISTS node_keys (
+    node_key BIGINT PRIMARY KEY,
+    id VARCHAR NOT NULL UNIQUE
+);
+
+INSERT INTO node_keys (node_key, id)
+SELECT row_number() OVER (ORDER BY id) - 1, id
+FROM (
+    SELECT id FROM nodes
+    UNION
+    SELECT src FROM edges WHERE src IS NOT NULL AND dst IS NOT NULL
+    UNION
+    SELECT dst FROM edges WHERE src IS NOT NULL AND dst IS NOT NULL
+    UNION
+    SELECT node_id FROM node_lookup
+) ids;
+
+DROP TABLE IF EXISTS nodes_new;
+
+CREATE TABLE nodes_new (
+    node_key BIGINT PRIMARY KEY,
+    kind VARCHAR NOT NULL,
+    label VARCHAR,
+    attrs JSON,
+    flags VARCHAR[]
+);
+
+INSERT INTO nodes_new (node_key, kind, label, attrs, flags)
+SELECT k.node_key, n.kind, n.label, n.attrs, n.flags
+FROM nodes n
+JOIN node_keys k ON k.id = n.id
+ORDER BY k.node_key;
+
+DROP INDEX IF EXISTS idx_nodes_kind;
+DROP TABLE nodes;
+ALTER TABLE nodes_new RENAME TO nodes;
+
+CREATE INDEX IF NOT EXISTS idx_nodes_kind ON nodes(kind);
+
+DROP TABLE IF EXISTS node_lookup_new;
+
+CREATE TABLE node_lookup_new (
+    lookup_kind VARCHAR NOT NULL,
+    lookup_value VARCHAR NOT NULL,
+    node_key BIGINT NOT NULL,
+    PRIMARY KEY (lookup_kind, lookup_value, node_key)
+);
+
+INSERT INTO node_lookup_new (lookup_kind, lookup_value, node_key)
+SELECT l.lookup_kind, l.lookup_value, k.node_key
+FROM node_lookup l
+JOIN node_keys k ON k.id = l.node_id;
+
+DROP INDEX IF EXISTS idx_node_lookup_kind_value;
+DROP TABLE node_lookup;
+ALTER TABLE node_lookup_new RENAME TO node_lookup;
+
+CREATE INDEX IF NOT EXISTS idx_node_lookup_kind_value ON node_lookup(lookup_kind, lookup_value);
+
+DROP TABLE IF EXISTS edges_new;
+
+CREATE TABLE edges_new (
+    src BIGINT NOT NULL,
+    dst BIGINT NOT NULL,
+    id VARCHAR,
+    kind UTINYINT NOT NULL,
+    attrs JSON,
+    flags VARCHAR[]
+);
+
+INSERT INTO edges_new (src, dst, id, kind, attrs, flags)
+SELECT s.node_key, d.node_key, NULLIF(NULLIF(e.id, ''), e.src || '->' || e.dst || ':' || k.name),
+       e.kind, e.attrs, e.flags
+FROM edges e
+JOIN node_keys s ON s.id = e.src
+JOIN node_keys d ON d.id = e.dst
+JOIN edge_kinds k ON k.code = e.kind
+ORDER BY s.node_key, e.kind, d.node_key;
+
+DROP INDEX IF EXISTS idx_edges_src_kind_dst;
+DROP TABLE edges;
+ALTER TABLE edges_new RENAME TO edges;
+
+CREATE INDEX IF NOT EXISTS idx_edges_src_kind_dst ON edges(src, kind, dst);
@@ -0,0 +1,4 @@
+-- in-edge lookups (direction in/both): the mirror of idx_edges_src_kind_dst, so dst = ? is an index probe
+-- instead of a scan over a table ordered by src.
+
+CREATE INDEX IF NOT EXISTS idx_edges_dst_kind_src ON edges(dst, kind, src);
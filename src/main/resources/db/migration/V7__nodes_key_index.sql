@@ -0,0 +1,26 @@
+-- nodes.node_key: PRIMARY KEY -> plain index. DuckDB 1.1 rejects re-inserting a unique key deleted in the same
+-- transaction (and updates of list columns are deletes + inserts), which forced a replaced node row to be deleted
+-- in a transaction of its own. With a non-unique index a graph delta is a single transaction, and uniqueness is
+-- kept by the writers: deltas delete a row before inserting it and ingest keeps one row per key.
+
+DROP TABLE IF EXISTS nodes_new;
+
+CREATE TABLE nodes_new (
+    node_key BIGINT NOT NULL,
+    kind VARCHAR NOT NULL,
+    label VARCHAR,
+    attrs JSON,
+    flags VARCHAR[]
+);
+
+INSERT INTO nodes_new (node_key, kind, label, attrs, flags)
+SELECT node_key, kind, label, attrs, flags
+FROM nodes
+ORDER BY node_key;
+
+DROP INDEX IF EXISTS idx_nodes_kind;
+DROP TABLE nodes;
+ALTER TABLE nodes_new RENAME TO nodes;
+
+CREATE INDEX IF NOT EXISTS idx_nodes_key ON nodes(node_key);
+CREATE INDEX IF NOT EXISTS idx_nodes_kind ON nodes(kind);
@@ -2,83 +2,122 @@ package com.pm.graph_api_v1;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.graph_api_v1.api.dto.graph.EdgeDto;
+import com.pm.graph_api_v1.api.dto.graph.NodeDto;
+import com.pm.graph_api_v1.concurrency.DbConcurrencyLimiter;
+import com.pm.graph_api_v1.concurrency.Deadline;
+import com.pm.graph_api_v1.config.DuckDbConfig;
+import com.pm.graph_api_v1.domain.Direction;
+import com.pm.graph_api_v1.domain.GraphDelta;
+import com.pm.graph_api_v1.exeption.DeadlineExceededException;
+import com.pm.graph_api_v1.metrics.SlowQueryLog;
+import com.pm.graph_api_v1.repository.CachingGraphRepository;
+import com.pm.graph_api_v1.topology.GraphTopologyEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.duckdb.DuckDBPreparedStatement;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @TestPropertySource(properties = {
         "spring.datasource.url=jdbc:duckdb:./target/graph_test.duckdb",
-        "spring.datasource.driver-class-name=org.duckdb.DuckDBDriver"
+        "spring.datasource.driver-class-name=org.duckdb.DuckDBDriver",
+        "graph.ingest.base-dir=./target/ingest-test",
+        "graph.duckdb.read-pool-size=4",
+        "graph.concurrency.queue-limits.expand=0",
+        "graph.slow-query.threshold=0ms",
+        "graph.slow-query.explain=true",
+        "graph.topology.supernode-degree=5",
+        "graph.topology.weight-attrs=amount"
 })
 class GraphV1ControllerTests {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private DbConcurrencyLimiter dbConcurrencyLimiter;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    @Qualifier(DuckDbConfig.READ_JDBC_TEMPLATE)
+    private JdbcTemplate readJdbcTemplate;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private GraphTopologyEngine graphTopologyEngine;
+
+    @Autowired
+    private CachingGraphRepository cachingGraphRepository;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
     @BeforeEach
     void seedData() {
         jdbcTemplate.execute("DELETE FROM node_lookup");
         jdbcTemplate.execute("DELETE FROM edges");
         jdbcTemplate.execute("DELETE FROM nodes");
 
-        jdbcTemplate.update(
-                "INSERT INTO nodes (id, kind, label, attrs, flags) VALUES (?, ?, ?, ?, ?)",
-                "person:1", "person", "Alice", "{\"age\":30}", "[\"vip\"]"
-        );
-        jdbcTemplate.update(
-                "INSERT INTO nodes (id, kind, label, attrs, flags) VALUES (?, ?, ?, ?, ?)",
-                "person:2", "person", "Bob", "{}", "[]"
-        );
-        jdbcTemplate.update(
-                "INSERT INTO nodes (id, kind, label, attrs, flags) VALUES (?, ?, ?, ?, ?)",
-                "phone:+7999", "phone", "+7999", "{}", "[]"
-        );
-        jdbcTemplate.update(
-                "INSERT INTO nodes (id, kind, label, attrs, flags) VALUES (?, ?, ?, ?, ?)",
-                "company:7700000000", "company", "Acme", "{}", "[]"
-        );
-
-        jdbcTemplate.update(
-                "INSERT INTO node_lookup (lookup_kind, lookup_value, node_id) VALUES (?, ?, ?)",
-                "id", "1", "person:1"
-        );
-        jdbcTemplate.update(
-                "INSERT INTO node_lookup (lookup_kind, lookup_value, node_id) VALUES (?, ?, ?)",
-                "phone_no", "+7999", "phone:+7999"
-        );
-        jdbcTemplate.update(
-                "INSERT INTO node_lookup (lookup_kind, lookup_value, node_id) VALUES (?, ?, ?)",
-                "party_rk", "7700000000", "company:7700000000"
-        );
-
-        jdbcTemplate.update(
-                "INSERT INTO edges (id, src, dst, kind, attrs, flags) VALUES (?, ?, ?, ?, ?, ?)",
-                "e1", "person:1", "person:2", "transfer", "{\"amount\":100}", "[\"confirmed\"]"
-        );
-        jdbcTemplate.update(
-                "INSERT INTO edges (id, src, dst, kind, attrs, flags) VALUES (?, ?, ?, ?, ?, ?)",
-                "e2", "person:2", "phone:+7999", "contact", "{}", "[]"
-        );
+        insertNode("person:1", "person", "Alice", "{\"age\":30}", "[\"vip\"]");
+        insertNode("person:2", "person", "Bob", "{}", "[]");
+        insertNode("phone:+7999", "phone", "+7999", "{}", "[]");
+        insertNode("company:7700000000", "company", "Acme", "{}", "[]");
+
+        insertLookup("id", "1", "person:1");
+        insertLookup("phone_no", "+7999", "phone:+7999");
+        insertLookup("party_rk", "7700000000", "company:7700000000");
+
+        insertEdge("e1", "person:1", "person:2", "transfer", "{\"amount\":100}", "[\"confirmed\"]");
+        insertEdge("e2", "person:2", "phone:+7999", "contact", "{}", "[]");
+
+        graphTopologyEngine.reload();
+        cachingGraphRepository.invalidateAllNodes();
     }
 
     @Test
@@ -103,10 +142,16 @@ class GraphV1ControllerTests {
         JsonNode root = objectMapper.readTree(response);
         assertThat(root.get("edges").size()).isEqualTo(1);
         assertThat(root.get("edges").get(0).get("kind").asText()).isEqualTo("transfer");
+        assertThat(root.get("edges").get(0).get("attrs").get("amount").asInt()).isEqualTo(100);
+        assertThat(root.get("edges").get(0).get("flags").get(0).asText()).isEqualTo("confirmed");
 
         Set<String> nodeIds = new HashSet<>();
         for (JsonNode node : root.get("nodes")) {
             nodeIds.add(node.get("id").asText());
+            if (node.get("id").asText().equals("person:1")) {
+                assertThat(node.get("attrs").get("age").asInt()).isEqualTo(30);
+                assertThat(node.get("flags").get(0).asText()).isEqualTo("vip");
+            }
         }
         assertThat(nodeIds).contains("person:1", "person:2");
 
@@ -116,6 +161,238 @@ class GraphV1ControllerTests {
         assertThat(page.get("endCursor").asText()).isEqualTo("person:2");
     }
 
+    /**
+     * Tables refer to nodes by node_keys key and store the kind as an edge_kinds code, both registered on first use.
+     */
+    private void insertEdge(String id, String src, String dst, String kind, String attrs, String flags) {
+        jdbcTemplate.update("""
+                INSERT INTO edge_kinds (code, name)
+                SELECT (SELECT COALESCE(max(code) + 1, 0) FROM edge_kinds), ?::VARCHAR
+                WHERE NOT EXISTS (SELECT 1 FROM edge_kinds WHERE name = ?)""", kind, kind);
+        jdbcTemplate.update("""
+                INSERT INTO edges (id, src, dst, kind, attrs, flags)
+                SELECT ?, ?, ?, code, ?, ?::JSON::VARCHAR[] FROM edge_kinds WHERE name = ?""",
+                id, nodeKey(src), nodeKey(dst), attrs, flags, kind);
+    }
+
+    private void insertNode(String id, String kind, String label, String attrs, String flags) {
+        jdbcTemplate.update("INSERT INTO nodes (node_key, kind, label, attrs, flags) VALUES (?, ?, ?, ?, ?::JSON::VARCHAR[])",
+                nodeKey(id), kind, label, attrs, flags);
+    }
+
+    private void insertLookup(String lookupKind, String lookupValue, String nodeId) {
+        jdbcTemplate.update("INSERT INTO node_lookup (lookup_kind, lookup_value, node_key) VALUES (?, ?, ?)",
+                lookupKind, lookupValue, nodeKey(nodeId));
+    }
+
+    private long nodeKey(String id) {
+        jdbcTemplate.update("""
+                INSERT INTO node_keys (node_key, id)
+                SELECT (SELECT COALESCE(max(node_key) + 1, 0) FROM node_keys), ?::VARCHAR
+                WHERE NOT EXISTS (SELECT 1 FROM node_keys WHERE id = ?)""", id, id);
+        return jdbcTemplate.queryForObject("SELECT node_key FROM node_keys WHERE id = ?", Long.class, id);
+    }
+
+    @Test
+    void oneHopLimitsEdgesPerSeed() throws Exception {
+        insertEdge("e3", "person:1", "company:7700000000", "transfer", "{}", "[]");
+
+        String payload = """
+            {
+              "seeds": ["person:1", "person:2"],
+              "limit": 1
+            }
+            """;
+
+        String response = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode root = objectMapper.readTree(response);
+        assertThat(root.get("edges").size()).isEqualTo(2);
+
+        JsonNode first = root.get("pages").get(0);
+        assertThat(first.get("seed").asText()).isEqualTo("person:1");
+        assertThat(first.get("endCursor").asText()).isEqualTo("company:7700000000");
+        assertThat(first.get("hasNext").asBoolean()).isTrue();
+
+        JsonNode second = root.get("pages").get(1);
+        assertThat(second.get("seed").asText()).isEqualTo("person:2");
+        assertThat(second.get("endCursor").asText()).isEqualTo("phone:+7999");
+        assertThat(second.get("hasNext").asBoolean()).isFalse();
+
+        String nextPayload = """
+            {
+              "seeds": ["person:1", "person:2"],
+              "cursor": "%s",
+              "limit": 1
+            }
+            """.formatted(root.get("nextCursor").asText());
+
+        String nextResponse = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content(nextPayload))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode next = objectMapper.readTree(nextResponse);
+        assertThat(next.get("pages").size()).isEqualTo(1);
+        assertThat(next.get("pages").get(0).get("seed").asText()).isEqualTo("person:1");
+        assertThat(next.get("pages").get(0).get("hasNext").asBoolean()).isFalse();
+        assertThat(next.get("edges").get(0).get("id").asText()).isEqualTo("e1");
+        assertThat(next.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void oneHopStreamsNdjsonWhenRequested() throws Exception {
+        insertEdge("e3", "person:1", "company:7700000000", "transfer", "{}", "[]");
+
+        String payload = """
+            {
+              "seeds": ["person:1", "person:2"],
+              "limit": 1
+            }
+            """;
+
+        MvcResult started = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .accept("application/x-ndjson")
+                        .content(payload))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+
+        List<String> types = lines.stream().map(line -> line.get("type").asText()).toList();
+        assertThat(types).containsExactly("edge", "edge", "node", "node", "node", "node", "page", "page", "end");
+        assertThat(lines.get(0).get("data").get("dst").asText()).isEqualTo("company:7700000000");
+        assertThat(lines.get(1).get("data").get("id").asText()).isEqualTo("e2");
+
+        Set<String> nodeIds = new HashSet<>();
+        lines.stream()
+                .filter(line -> line.get("type").asText().equals("node"))
+                .forEach(line -> nodeIds.add(line.get("data").get("id").asText()));
+        assertThat(nodeIds).containsExactlyInAnyOrder("person:1", "person:2", "company:7700000000", "phone:+7999");
+
+        assertThat(lines.get(6).get("data").get("hasNext").asBoolean()).isTrue();
+        assertThat(lines.get(8).get("nextCursor").asText()).isNotBlank();
+    }
+
+    @Test
+    void oneHopFollowsInboundAndUndirectedEdges() throws Exception {
+        String inbound = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "seeds": ["person:2"],
+                              "limit": 10,
+                              "direction": "in"
+                            }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode in = objectMapper.readTree(inbound);
+        assertThat(in.get("edges").size()).isEqualTo(1);
+        assertThat(in.get("edges").get(0).get("id").asText()).isEqualTo("e1");
+        assertThat(in.get("edges").get(0).get("src").asText()).isEqualTo("person:1");
+        assertThat(in.get("pages").get(0).get("endCursor").asText()).isEqualTo("person:1");
+
+        String firstPage = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "seeds": ["person:2"],
+                              "limit": 1,
+                              "direction": "both"
+                            }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode first = objectMapper.readTree(firstPage);
+        assertThat(first.get("edges").get(0).get("id").asText()).isEqualTo("e1");
+        assertThat(first.get("pages").get(0).get("hasNext").asBoolean()).isTrue();
+        String cursor = first.get("nextCursor").asText();
+
+        String secondPage = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "seeds": ["person:2"],
+                              "cursor": "%s",
+                              "limit": 1,
+                              "direction": "both"
+                            }
+                            """.formatted(cursor)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode second = objectMapper.readTree(secondPage);
+        assertThat(second.get("edges").get(0).get("id").asText()).isEqualTo("e2");
+        assertThat(second.get("pages").get(0).get("hasNext").asBoolean()).isFalse();
+
+        mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "seeds": ["person:2"],
+                              "cursor": "%s",
+                              "limit": 1
+                            }
+                            """.formatted(cursor)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void oneHopRejectsMalformedCursor() throws Exception {
+        String payload = """
+            {
+              "seeds": ["person:1"],
+              "cursor": "person:2",
+              "limit": 10
+            }
+            """;
+
+        mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content(payload))
+                .andExpect(status().isBadRequest());
+
+        // well-formed, but positioned after an edge kind that was never stored
+        String unknownKind = Base64.getUrlEncoder().withoutPadding().encodeToString("""
+                {"v":1,"k":"*","d":"out","p":[["person:1","person:2","no-such-kind"]]}
+                """.getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["person:1"], "cursor": "%s", "limit": 10 }
+                            """.formatted(unknownKind)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void oneHopResolvesIdsWhenSeedsMissing() throws Exception {
         String payload = """
@@ -167,6 +444,627 @@ class GraphV1ControllerTests {
         assertThat(nodeIds).contains("phone:+7999", "company:7700000000");
     }
 
+    @Test
+    void resolveReportsMatchesAndUnresolvedValues() throws Exception {
+        String payload = """
+            {
+              "ids": ["1", "person:2", "missing"],
+              "phoneNos": ["+7999"]
+            }
+            """;
+
+        String response = mockMvc.perform(post("/api/v1/graph/resolve")
+                        .contentType("application/json")
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode root = objectMapper.readTree(response);
+        List<String> matches = new ArrayList<>();
+        for (JsonNode match : root.get("matches")) {
+            matches.add(match.get("kind").asText() + "/" + match.get("value").asText() + "->" + match.get("nodeId").asText());
+        }
+        assertThat(matches).containsExactly("id/1->person:1", "id/person:2->person:2", "phone_no/+7999->phone:+7999");
+
+        assertThat(root.get("unresolved").size()).isEqualTo(1);
+        assertThat(root.get("unresolved").get(0).get("kind").asText()).isEqualTo("id");
+        assertThat(root.get("unresolved").get(0).get("value").asText()).isEqualTo("missing");
+        assertThat(root.get("nodes").size()).isEqualTo(3);
+    }
+
+    @Test
+    void bulkResolveStreamsMatchesForCsvBody() throws Exception {
+        String body = """
+            kind,value
+            phone_no,+7999
+            party_rk,7700000000
+            id,missing
+            """;
+
+        String response = mockMvc.perform(post("/api/v1/graph/resolve/bulk")
+                        .contentType("text/csv")
+                        .accept("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            JsonNode match = objectMapper.readTree(line);
+            lines.add(match.get("kind").asText() + "/" + match.get("value").asText() + "->" + match.get("nodeId").asText());
+        }
+        assertThat(lines).containsExactly(
+                "phone_no/+7999->phone:+7999",
+                "party_rk/7700000000->company:7700000000",
+                "id/missing->null");
+
+        mockMvc.perform(post("/api/v1/graph/resolve/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{\"kind\":\"email\",\"value\":\"a@b.c\"}\n"))
+                .andExpect(status().isBadRequest());
+
+        // the body is parsed before a permit is taken, so a bad body is rejected even while storage is saturated
+        int permits = dbConcurrencyLimiter.size();
+        for (int i = 0; i < permits; i++) {
+            dbConcurrencyLimiter.acquire("test");
+        }
+        try {
+            mockMvc.perform(post("/api/v1/graph/resolve/bulk")
+                            .contentType("text/csv")
+                            .content("phone_no\n"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                dbConcurrencyLimiter.release();
+            }
+        }
+    }
+
+    @Test
+    void ingestSwapsInStagedTables() throws Exception {
+        Path dir = Files.createDirectories(Path.of("target/ingest-test"));
+        Files.writeString(dir.resolve("edges.csv"), """
+            src,dst,kind
+            person:10,person:11,transfer
+            person:11,phone:12,
+            """);
+        Files.writeString(dir.resolve("nodes.ndjson"), """
+            {"id":"person:10","label":"Carol","attrs":{"age":41},"flags":["vip"]}
+            {"id":"person:11","kind":"person","label":"Dave"}
+            {"id":"phone:12"}
+            """);
+
+        String report = mockMvc.perform(post("/api/v1/admin/ingest")
+                        .contentType("application/json")
+                        .content("""
+                            { "nodes": { "path": "nodes.ndjson" }, "edges": { "path": "edges.csv" } }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode counts = objectMapper.readTree(report);
+        assertThat(counts.get("nodes").asLong()).isEqualTo(3);
+        assertThat(counts.get("edges").asLong()).isEqualTo(2);
+        assertThat(counts.get("lookups").isNull()).isTrue();
+
+        String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            { "from": "person:10", "to": "phone:12" }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode path = objectMapper.readTree(response);
+        assertThat(path.get("length").asInt()).isEqualTo(2);
+        assertThat(path.get("nodes").get(0).get("attrs").get("age").asInt()).isEqualTo(41);
+        assertThat(path.get("nodes").get(0).get("kind").asText()).isEqualTo("person");
+        assertThat(path.get("edges").get(1).get("kind").asText()).isEqualTo("edge");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM edges e JOIN node_keys k ON k.node_key = e.src WHERE k.id = 'person:1'", Long.class)).isZero();
+
+        mockMvc.perform(post("/api/v1/admin/ingest")
+                        .contentType("application/json")
+                        .content("""
+                            { "edges": { "path": "../../pom.xml", "format": "csv" } }
+                            """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deltaUpdatesGraphWithoutReload() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/delta")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "upsertNodes": [
+                                { "id": "phone:+7000", "label": "+7000" },
+                                { "id": "person:2", "label": "Robert", "flags": ["blacklist"] }
+                              ],
+                              "addEdges": [
+                                { "src": "person:1", "dst": "phone:+7000", "kind": "sms" },
+                                { "src": "phone:+7000", "dst": "company:7700000000", "kind": "owner", "attrs": { "since": 2020 } }
+                              ],
+                              "removeEdges": [
+                                { "src": "person:2", "dst": "phone:+7999" }
+                              ]
+                            }
+                            """))
+                .andExpect(status().isOk());
+
+        for (String algorithm : new String[]{"bfs", "bidirectional"}) {
+            String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                            .contentType("application/json")
+                            .content("""
+                                { "from": "person:1", "to": "company:7700000000", "algorithm": "%s" }
+                                """.formatted(algorithm)))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            JsonNode path = objectMapper.readTree(response);
+            assertThat(path.get("length").asInt()).isEqualTo(2);
+            assertThat(path.get("nodes").get(1).get("kind").asText()).isEqualTo("phone");
+            assertThat(path.get("edges").get(1).get("attrs").get("since").asInt()).isEqualTo(2020);
+        }
+
+        String oneHop = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["person:1"], "limit": 10 }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        JsonNode hop = objectMapper.readTree(oneHop);
+        assertThat(hop.get("edges").size()).isEqualTo(2);
+        assertThat(hop.findValuesAsText("label")).contains("Robert");
+
+        assertThat(pathLength("person:1", "phone:+7999")).isZero();
+
+        mockMvc.perform(post("/api/v1/admin/delta")
+                        .contentType("application/json")
+                        .content("""
+                            { "deleteNodes": ["phone:+7000"] }
+                            """))
+                .andExpect(status().isOk());
+
+        assertThat(pathLength("person:1", "company:7700000000")).isZero();
+
+        // compaction folds the overlay into a fresh snapshot with the same edges
+        graphTopologyEngine.compact();
+        assertThat(pathLength("person:1", "person:2")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM edges", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void compactionFoldsOverlayInMemoryAndReloadsAfterFailedPatch() throws Exception {
+        // written behind the topology's back, so only a reload of the edges table can see it
+        insertEdge("w1", "person:2", "acct:z", "wire", "{}", "[]");
+        mockMvc.perform(post("/api/v1/admin/delta")
+                        .contentType("application/json")
+                        .content("""
+                            { "addEdges": [ { "src": "person:2", "dst": "phone:+7000", "kind": "sms" } ] }
+                            """))
+                .andExpect(status().isOk());
+
+        graphTopologyEngine.compact();
+        assertThat(pathLength("person:1", "phone:+7000")).isEqualTo(2);
+        assertThat(pathLength("person:2", "acct:z")).isZero();
+
+        // a delta the topology cannot patch marks it stale, and the next compaction reloads it
+        GraphDelta unknownKind = new GraphDelta(List.of(), List.of(), List.of(),
+                List.of(new EdgeDto("g1", "person:1", "acct:z", "ghost", null, Set.of())));
+        assertThatThrownBy(() -> graphTopologyEngine.applyDelta(unknownKind)).isInstanceOf(IllegalStateException.class);
+        graphTopologyEngine.compact();
+        assertThat(pathLength("person:2", "acct:z")).isEqualTo(1);
+        assertThat(pathLength("person:1", "phone:+7000")).isEqualTo(2);
+    }
+
+    @Test
+    void failedDeltaLeavesTablesUntouched() {
+        // more kinds than the UTINYINT codes can hold: the edge_kinds insert fails after the node rows were replaced
+        List<EdgeDto> addEdges = new ArrayList<>();
+        for (int i = 0; i < 260; i++) {
+            addEdges.add(new EdgeDto("k" + i, "person:1", "person:2", "kind" + i, null, Set.of()));
+        }
+        GraphDelta delta = new GraphDelta(List.of("person:404"), List.of(),
+                List.of(new NodeDto("person:2", "person", "Robert", null, Set.of("blacklist"))), addEdges);
+        assertThatThrownBy(() -> cachingGraphRepository.applyDelta(delta)).isInstanceOf(RuntimeException.class);
+
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT n.label FROM nodes n JOIN node_keys k ON k.node_key = n.node_key WHERE k.id = 'person:2'
+                """, String.class)).isEqualTo("Bob");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM edge_kinds WHERE name LIKE 'kind%'", Long.class))
+                .isZero();
+
+        // upserting a node twice keeps the last row, deleting an unknown id does not register a key for it
+        cachingGraphRepository.applyDelta(new GraphDelta(List.of("person:404"), List.of(), List.of(
+                new NodeDto("person:2", "person", "Robert", null, Set.of("blacklist")),
+                new NodeDto("person:2", "person", "Bobby", null, Set.of())), List.of()));
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT n.label FROM nodes n JOIN node_keys k ON k.node_key = n.node_key WHERE k.id = 'person:2'
+                """, String.class)).containsExactly("Bobby");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM node_keys WHERE id = 'person:404'", Long.class))
+                .isZero();
+
+        // adding the same (src, dst, kind) twice stores one row, the last one
+        cachingGraphRepository.applyDelta(new GraphDelta(List.of(), List.of(), List.of(), List.of(
+                new EdgeDto("d1", "person:1", "person:2", "sms", null, Set.of()),
+                new EdgeDto("d2", "person:1", "person:2", "sms", null, Set.of()))));
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT e.id FROM edges e JOIN edge_kinds ek ON ek.code = e.kind WHERE ek.name = 'sms'
+                """, String.class)).containsExactly("d2");
+    }
+
+    @Test
+    void deltaOnPairWithSeveralKindsKeepsKindCodeOrder() throws Exception {
+        // "alias" sorts before "transfer" by name but gets a larger code, so the pair's slice is not in name order
+        insertEdge("e3", "person:1", "person:2", "alias", "{}", "[]");
+        graphTopologyEngine.reload();
+
+        mockMvc.perform(post("/api/v1/admin/delta")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "addEdges": [
+                                { "src": "person:1", "dst": "person:2", "kind": "transfer", "attrs": { "amount": 200 } },
+                                { "src": "person:1", "dst": "person:2", "kind": "beta" }
+                              ]
+                            }
+                            """))
+                .andExpect(status().isOk());
+        assertThat(outDegree("person:1")).isEqualTo(3);
+
+        mockMvc.perform(post("/api/v1/admin/delta")
+                        .contentType("application/json")
+                        .content("""
+                            { "removeEdges": [ { "src": "person:1", "dst": "person:2", "kind": "transfer" } ] }
+                            """))
+                .andExpect(status().isOk());
+        assertThat(outDegree("person:1")).isEqualTo(2);
+
+        graphTopologyEngine.reload();
+        assertThat(outDegree("person:1")).isEqualTo(2);
+    }
+
+    private int outDegree(String nodeId) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["%s"], "limit": 10 }
+                            """.formatted(nodeId)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        for (JsonNode node : objectMapper.readTree(response).get("nodes")) {
+            if (node.get("id").asText().equals(nodeId)) {
+                return node.get("outDegree").asInt();
+            }
+        }
+        throw new AssertionError("Seed missing from one-hop response: " + nodeId);
+    }
+
+    private int pathLength(String from, String to) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            { "from": "%s", "to": "%s" }
+                            """.formatted(from, to)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(response).get("length").asInt();
+    }
+
+    @Test
+    void oneHopSplitsLargeSeedSetsIntoParallelQueries() throws Exception {
+        List<String> seeds = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            String seed = "person:bulk" + i;
+            seeds.add(seed);
+            insertEdge("b" + i, seed, "person:2", "transfer", "{}", "[]");
+        }
+
+        String response = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(Map.of("seeds", seeds, "limit", 10))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode root = objectMapper.readTree(response);
+        assertThat(root.get("edges").size()).isEqualTo(150);
+        assertThat(root.get("pages").size()).isEqualTo(150);
+        assertThat(root.get("pages").get(149).get("seed").asText()).isEqualTo("person:bulk149");
+        assertThat(root.get("pages").get(149).get("endCursor").asText()).isEqualTo("person:2");
+
+        // with every other permit taken the request cannot fan out and runs a single query
+        int held = dbConcurrencyLimiter.size() - 1;
+        for (int i = 0; i < held; i++) {
+            dbConcurrencyLimiter.acquire("test");
+        }
+        try {
+            String busy = mockMvc.perform(post("/api/v1/graph/one-hop")
+                            .contentType("application/json")
+                            .content(objectMapper.writeValueAsString(Map.of("seeds", seeds, "limit", 10))))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            assertThat(objectMapper.readTree(busy).get("edges").size()).isEqualTo(150);
+            // the background EXPLAIN of the request's slow query may still hold the free permit for a moment
+            int free = dbConcurrencyLimiter.tryAcquireExtra(2);
+            for (int attempt = 0; attempt < 100 && free == 0; attempt++) {
+                Thread.sleep(20);
+                free = dbConcurrencyLimiter.tryAcquireExtra(2);
+            }
+            assertThat(free).isEqualTo(1);
+            dbConcurrencyLimiter.release(1);
+        } finally {
+            dbConcurrencyLimiter.release(held);
+        }
+    }
+
+    @Test
+    void saturatedStorageRejectsRequestsQuickly() throws Exception {
+        int permits = dbConcurrencyLimiter.size();
+        for (int i = 0; i < permits; i++) {
+            dbConcurrencyLimiter.acquire("test");
+        }
+        try {
+            // expand has a queue limit of 0 in this test: rejected without waiting
+            mockMvc.perform(post("/api/v1/graph/expand")
+                            .contentType("application/json")
+                            .content("""
+                                { "seeds": ["person:1"], "depth": 1 }
+                                """))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"));
+
+            // one-hop may queue, but gives up after the acquire timeout
+            mockMvc.perform(post("/api/v1/graph/one-hop")
+                            .contentType("application/json")
+                            .content("""
+                                { "seeds": ["person:1"], "limit": 10 }
+                                """))
+                    .andExpect(status().isServiceUnavailable());
+
+            mockMvc.perform(post("/api/v1/graph/one-hop")
+                            .contentType("application/json")
+                            .accept("application/x-ndjson")
+                            .content("""
+                                { "seeds": ["person:1"], "limit": 10 }
+                                """))
+                    .andExpect(status().isServiceUnavailable());
+
+            mockMvc.perform(get("/health"))
+                    .andExpect(status().isOk());
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                dbConcurrencyLimiter.release();
+            }
+        }
+
+        mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["person:1"], "limit": 10 }
+                            """))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void queuedRequestIsServedBeforeNewcomer() throws Exception {
+        int permits = dbConcurrencyLimiter.size();
+        for (int i = 0; i < permits; i++) {
+            dbConcurrencyLimiter.acquire("test");
+        }
+        try {
+            // a single round could let the waiter win by timing alone
+            for (int round = 0; round < 20; round++) {
+                CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> dbConcurrencyLimiter.acquire("test"));
+                Thread.sleep(20);
+
+                // the freed permit goes to the waiter, the newcomer queues behind it and gives up at its deadline
+                dbConcurrencyLimiter.release();
+                assertThatThrownBy(() -> Deadline.callWith(Deadline.after(Duration.ofMillis(10)), () -> {
+                    dbConcurrencyLimiter.acquire("test");
+                    return null;
+                })).isInstanceOf(DeadlineExceededException.class);
+                // the waiter's permit stays taken, so every permit is held again for the next round
+                queued.get(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                dbConcurrencyLimiter.release();
+            }
+        }
+    }
+
+    @Test
+    void requestDeadlineStopsWaitingAndRunningQueries() throws Exception {
+        int permits = dbConcurrencyLimiter.size();
+        for (int i = 0; i < permits; i++) {
+            dbConcurrencyLimiter.acquire("test");
+        }
+        try {
+            // the client budget is shorter than the acquire timeout
+            MvcResult result = mockMvc.perform(post("/api/v1/graph/one-hop")
+                            .contentType("application/json")
+                            .header("X-Request-Timeout", "50")
+                            .content("""
+                                { "seeds": ["person:1"], "limit": 10 }
+                                """))
+                    .andExpect(status().isGatewayTimeout())
+                    .andReturn();
+            assertThat(objectMapper.readTree(result.getResponse().getContentAsString()).get("code").asText())
+                    .isEqualTo("DEADLINE_EXCEEDED");
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                dbConcurrencyLimiter.release();
+            }
+        }
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> Deadline.callWith(Deadline.after(Duration.ofMillis(200)), () -> readJdbcTemplate.queryForObject(
+                "SELECT sum(a.range * b.range) FROM range(1000000) a, range(1000000) b", Long.class)))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+
+        // the interrupt does not outlive the cancelled query
+        for (int i = 0; i < permits; i++) {
+            assertThat(readJdbcTemplate.queryForObject("SELECT 42", Integer.class)).isEqualTo(42);
+        }
+    }
+
+    @Test
+    void readConnectionsReusePreparedStatements() {
+        String sql = "SELECT count(*) FROM node_keys WHERE id IN (?, ?)";
+        readJdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            PreparedStatement first = connection.prepareStatement(sql);
+            DuckDBPreparedStatement prepared = first.unwrap(DuckDBPreparedStatement.class);
+            first.close();
+
+            PreparedStatement second = connection.prepareStatement(sql);
+            assertThat(second.unwrap(DuckDBPreparedStatement.class)).isSameAs(prepared);
+            second.setString(1, "person:1");
+            second.setString(2, "person:2");
+            try (ResultSet rs = second.executeQuery()) {
+                rs.next();
+                assertThat(rs.getLong(1)).isEqualTo(2);
+            }
+            second.close();
+
+            // a write retires statements planned against the previous data
+            jdbcTemplate.update("UPDATE nodes SET label = label WHERE node_key = ?", nodeKey("person:1"));
+            try (PreparedStatement third = connection.prepareStatement(sql)) {
+                assertThat(third.unwrap(DuckDBPreparedStatement.class)).isNotSameAs(prepared);
+            }
+
+            // DuckDB closes a statement whose execution failed, so it is prepared anew
+            PreparedStatement failing = connection.prepareStatement("SELECT CAST(? AS INTEGER)");
+            failing.setString(1, "not a number");
+            assertThatThrownBy(failing::executeQuery).isInstanceOf(SQLException.class);
+            failing.close();
+            try (PreparedStatement retried = connection.prepareStatement("SELECT CAST(? AS INTEGER)")) {
+                retried.setString(1, "5");
+                try (ResultSet rs = retried.executeQuery()) {
+                    rs.next();
+                    assertThat(rs.getInt(1)).isEqualTo(5);
+                }
+            }
+            return null;
+        });
+
+        // three ids are padded to an IN list of four
+        cachingGraphRepository.invalidateAllNodes();
+        assertThat(cachingGraphRepository.findNodesByIds(List.of("person:1", "person:2", "phone:+7999")))
+                .extracting(NodeDto::id)
+                .containsExactlyInAnyOrder("person:1", "person:2", "phone:+7999");
+    }
+
+    @Test
+    void graphCallsAreMetered() throws Exception {
+        double found = meterRegistry.counter("graph.paths", "outcome", "found").count();
+        double notFound = meterRegistry.counter("graph.paths", "outcome", "not_found").count();
+
+        mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            { "from": "person:1", "to": "phone:+7999" }
+                            """))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            { "from": "person:1", "to": "person:missing" }
+                            """))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/graph/resolve")
+                        .contentType("application/json")
+                        .content("""
+                            { "ids": ["1", "2"] }
+                            """))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.counter("graph.paths", "outcome", "found").count()).isEqualTo(found + 1);
+        assertThat(meterRegistry.counter("graph.paths", "outcome", "not_found").count()).isEqualTo(notFound + 1);
+        assertThat(meterRegistry.get("graph.operations").tag("operation", "shortest-path").timer().count())
+                .isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("graph.repository.calls")
+                .tags("method", "resolveAll", "kind_filter", "false", "seeds", "2-10").timer().count())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("graph.repository.rows").tag("method", "resolveAll").counter().count())
+                .isGreaterThanOrEqualTo(1);
+
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "duckdb-reader").timer().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void slowQueriesAreRecordedWithParameterShapesAndPlans() throws Exception {
+        mockMvc.perform(delete("/api/v1/admin/slow-queries"))
+                .andExpect(status().isNoContent());
+
+        // only one plan is captured at a time, so a query recorded while another test's plan is running goes without one
+        JsonNode recorded = null;
+        for (int attempt = 0; attempt < 50 && (recorded == null || recorded.get("plan").isNull()); attempt++) {
+            mockMvc.perform(post("/api/v1/graph/resolve")
+                            .contentType("application/json")
+                            .content("""
+                                { "ids": ["1", "2"] }
+                                """))
+                    .andExpect(status().isOk());
+            Thread.sleep(100);
+
+            MvcResult result = mockMvc.perform(get("/api/v1/admin/slow-queries"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            recorded = null;
+            for (JsonNode entry : objectMapper.readTree(result.getResponse().getContentAsString())) {
+                if (entry.get("operation").asText().equals("resolveAll")
+                        && (recorded == null || recorded.get("plan").isNull())) {
+                    recorded = entry;
+                }
+            }
+        }
+
+        assertThat(recorded).isNotNull();
+        assertThat(recorded.get("sql").asText()).contains("node_lookup");
+        assertThat(recorded.get("params").toString()).isEqualTo("[\"Integer\",\"String×2\",\"Integer\",\"String×2\"]");
+        assertThat(recorded.get("rows").asLong()).isEqualTo(1);
+        assertThat(recorded.get("error").isNull()).isTrue();
+        assertThat(recorded.get("plan").asText()).doesNotStartWith("EXPLAIN ANALYZE failed").isNotBlank();
+
+        // a failed query is recorded with its error but never re-run for a plan
+        Thread.sleep(200);
+        assertThatThrownBy(() -> slowQueryLog.time("failing", "SELECT 42", null, true, () -> {
+            throw new IllegalStateException("boom");
+        }, ignored -> 0)).isInstanceOf(IllegalStateException.class);
+        Thread.sleep(200);
+        JsonNode failed = objectMapper.readTree(mockMvc.perform(get("/api/v1/admin/slow-queries"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()).get(0);
+        assertThat(failed.get("operation").asText()).isEqualTo("failing");
+        assertThat(failed.get("error").asText()).isEqualTo("boom");
+        assertThat(failed.get("plan").isNull()).isTrue();
+    }
+
     @Test
     void oneHopRequiresAtLeastOneSeed() throws Exception {
         String payload = """
@@ -181,6 +1079,47 @@ class GraphV1ControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void expandWalksLevelsWithinNodeBudget() throws Exception {
+        String payload = """
+            {
+              "ids": ["1"],
+              "depth": 2
+            }
+            """;
+
+        String response = mockMvc.perform(post("/api/v1/graph/expand")
+                        .contentType("application/json")
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode root = objectMapper.readTree(response);
+        assertThat(root.get("hops").get("person:1").asInt()).isEqualTo(0);
+        assertThat(root.get("hops").get("person:2").asInt()).isEqualTo(1);
+        assertThat(root.get("hops").get("phone:+7999").asInt()).isEqualTo(2);
+        assertThat(root.get("edges").size()).isEqualTo(2);
+        assertThat(root.get("nodes").size()).isEqualTo(3);
+        assertThat(root.get("truncated").asBoolean()).isFalse();
+
+        String budgeted = mockMvc.perform(post("/api/v1/graph/expand")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["person:1"], "depth": 2, "maxNodes": 2 }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode limited = objectMapper.readTree(budgeted);
+        assertThat(limited.get("nodes").size()).isEqualTo(2);
+        assertThat(limited.get("edges").size()).isEqualTo(1);
+        assertThat(limited.get("truncated").asBoolean()).isTrue();
+    }
+
     @Test
     void shortestPathReturnsEdgesAndLength() throws Exception {
         String payload = """
@@ -205,4 +1144,245 @@ class GraphV1ControllerTests {
         assertThat(root.get("edges").size()).isEqualTo(2);
         assertThat(root.get("nodes").size()).isEqualTo(3);
     }
+
+    @Test
+    void shortestPathPrefersLexicographicallySmallestRoute() throws Exception {
+        insertEdge("e3", "person:1", "company:7700000000", "transfer", "{}", "[]");
+        insertEdge("e4", "company:7700000000", "phone:+7999", "contact", "{}", "[]");
+        graphTopologyEngine.reload();
+
+        for (String algorithm : new String[]{"bfs", "bidirectional"}) {
+            String payload = """
+                {
+                  "from": "person:1",
+                  "to": "phone:+7999",
+                  "maxHops": 6,
+                  "algorithm": "%s"
+                }
+                """.formatted(algorithm);
+
+            String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                            .contentType("application/json")
+                            .content(payload))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            JsonNode root = objectMapper.readTree(response);
+            assertThat(root.get("length").asInt()).isEqualTo(2);
+            assertThat(root.get("edges").get(0).get("id").asText()).isEqualTo("e3");
+            assertThat(root.get("edges").get(1).get("id").asText()).isEqualTo("e4");
+        }
+    }
+
+    @Test
+    void shortestPathFollowsRequestedDirection() throws Exception {
+        insertEdge("e3", "person:1", "company:7700000000", "transfer", "{}", "[]");
+        graphTopologyEngine.reload();
+
+        for (String algorithm : new String[]{"bfs", "bidirectional"}) {
+            JsonNode against = shortestPath("phone:+7999", "person:1", "in", algorithm);
+            assertThat(against.get("length").asInt()).isEqualTo(2);
+            assertThat(against.get("nodes").get(0).get("id").asText()).isEqualTo("phone:+7999");
+            assertThat(against.get("edges").get(0).get("id").asText()).isEqualTo("e2");
+            assertThat(against.get("edges").get(1).get("id").asText()).isEqualTo("e1");
+
+            JsonNode undirected = shortestPath("company:7700000000", "person:2", "both", algorithm);
+            assertThat(undirected.get("length").asInt()).isEqualTo(2);
+            assertThat(undirected.get("edges").get(0).get("id").asText()).isEqualTo("e3");
+            assertThat(undirected.get("edges").get(1).get("id").asText()).isEqualTo("e1");
+
+            assertThat(shortestPath("company:7700000000", "person:2", "out", algorithm).get("length").asInt())
+                    .isZero();
+        }
+
+        // the recursive-CTE fallback used while no topology is loaded walks the same edges
+        assertThat(cachingGraphRepository.shortestPathVertices("phone:+7999", "person:1", 6, Direction.IN, Set.of()))
+                .containsExactly("phone:+7999", "person:2", "person:1");
+        assertThat(cachingGraphRepository.shortestPathVertices(
+                "company:7700000000", "person:2", 6, Direction.BOTH, Set.of()))
+                .containsExactly("company:7700000000", "person:1", "person:2");
+        assertThat(cachingGraphRepository.shortestPathVertices(
+                "company:7700000000", "person:2", 6, Direction.OUT, Set.of()))
+                .isEmpty();
+    }
+
+    @Test
+    void supernodesReportDegreesAndAreNotPassedThrough() throws Exception {
+        insertEdge("h0", "person:1", "phone:hub", "contact", "{}", "[]");
+        for (int i = 1; i <= 5; i++) {
+            insertEdge("h" + i, "person:x" + i, "phone:hub", "contact", "{}", "[]");
+        }
+        insertEdge("h6", "phone:hub", "company:7700000000", "contact", "{}", "[]");
+        graphTopologyEngine.reload();
+
+        String oneHop = mockMvc.perform(post("/api/v1/graph/one-hop")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["person:1"], "limit": 10 }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Map<String, JsonNode> nodes = new HashMap<>();
+        objectMapper.readTree(oneHop).get("nodes").forEach(node -> nodes.put(node.get("id").asText(), node));
+        assertThat(nodes.get("person:1").get("outDegree").asInt()).isEqualTo(2);
+        assertThat(nodes.get("person:1").get("inDegree").asInt()).isZero();
+        assertThat(nodes.get("phone:hub").get("outDegree").asInt()).isEqualTo(1);
+        assertThat(nodes.get("phone:hub").get("inDegree").asInt()).isEqualTo(6);
+
+        for (String algorithm : new String[]{"bfs", "bidirectional"}) {
+            assertThat(shortestPath("person:1", "company:7700000000", "out", algorithm).get("length").asInt())
+                    .isZero();
+            assertThat(shortestPath("person:1", "phone:hub", "out", algorithm).get("length").asInt())
+                    .isEqualTo(1);
+        }
+
+        String expanded = mockMvc.perform(post("/api/v1/graph/expand")
+                        .contentType("application/json")
+                        .content("""
+                            { "seeds": ["person:1"], "depth": 2 }
+                            """))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode expansion = objectMapper.readTree(expanded);
+        assertThat(expansion.get("hops").get("phone:hub").asInt()).isEqualTo(1);
+        assertThat(expansion.get("hops").has("company:7700000000")).isFalse();
+        assertThat(expansion.get("hops").get("phone:+7999").asInt()).isEqualTo(2);
+        assertThat(expansion.get("truncated").asBoolean()).isTrue();
+    }
+
+    @Test
+    void weightedShortestPathMinimizesSumOrMaximizesBottleneck() throws Exception {
+        insertEdge("e3", "person:1", "company:7700000000", "transfer", "{\"amount\":10}", "[]");
+        insertEdge("e4", "company:7700000000", "person:2", "transfer", "{\"amount\":20}", "[]");
+        graphTopologyEngine.reload();
+
+        JsonNode cheapest = weightedPath("amount", "min");
+        assertThat(cheapest.get("length").asInt()).isEqualTo(2);
+        assertThat(cheapest.get("cost").asDouble()).isEqualTo(30.0);
+        assertThat(cheapest.get("edges").get(0).get("id").asText()).isEqualTo("e3");
+        assertThat(cheapest.get("edges").get(1).get("id").asText()).isEqualTo("e4");
+
+        JsonNode strongest = weightedPath("amount", "max");
+        assertThat(strongest.get("length").asInt()).isEqualTo(1);
+        assertThat(strongest.get("cost").asDouble()).isEqualTo(100.0);
+        assertThat(strongest.get("edges").get(0).get("id").asText()).isEqualTo("e1");
+
+        assertThat(shortestPath("person:1", "person:2", "out", "bfs").get("cost").isNull()).isTrue();
+
+        // weights of edges added by a delta are read from their attrs
+        mockMvc.perform(post("/api/v1/admin/delta")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "addEdges": [
+                                { "src": "person:1", "dst": "person:2", "kind": "sms", "attrs": { "amount": "5" } }
+                              ]
+                            }
+                            """))
+                .andExpect(status().isOk());
+        JsonNode patched = weightedPath("amount", "min");
+        assertThat(patched.get("length").asInt()).isEqualTo(1);
+        assertThat(patched.get("cost").asDouble()).isEqualTo(5.0);
+        // the cheaper sms edge is returned, not the parallel transfer edge that has the lower kind code
+        assertThat(patched.get("edges").get(0).get("kind").asText()).isEqualTo("sms");
+
+        mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            { "from": "person:1", "to": "person:2", "weightAttr": "since" }
+                            """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void weightedShortestPathFindsCostlierRouteWithinMaxHops() throws Exception {
+        // acct:x is cheapest over acct:b, but that route needs three hops to acct:t
+        insertEdge("w1", "acct:a", "acct:b", "transfer", "{\"amount\":1}", "[]");
+        insertEdge("w2", "acct:b", "acct:x", "transfer", "{\"amount\":1}", "[]");
+        insertEdge("w3", "acct:a", "acct:x", "transfer", "{\"amount\":10}", "[]");
+        insertEdge("w4", "acct:x", "acct:t", "transfer", "{\"amount\":1}", "[]");
+        graphTopologyEngine.reload();
+
+        for (int maxHops : new int[]{2, 3}) {
+            String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                            .contentType("application/json")
+                            .content("""
+                                { "from": "acct:a", "to": "acct:t", "maxHops": %d, "weightAttr": "amount" }
+                                """.formatted(maxHops)))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            JsonNode path = objectMapper.readTree(response);
+            assertThat(path.get("length").asInt()).isEqualTo(maxHops);
+            assertThat(path.get("cost").asDouble()).isEqualTo(maxHops == 2 ? 11.0 : 3.0);
+        }
+    }
+
+    private JsonNode weightedPath(String weightAttr, String objective) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            { "from": "person:1", "to": "person:2", "weightAttr": "%s", "objective": "%s" }
+                            """.formatted(weightAttr, objective)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private JsonNode shortestPath(String from, String to, String direction, String algorithm) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/graph/shortest-path")
+                        .contentType("application/json")
+                        .content("""
+                            {
+                              "from": "%s",
+                              "to": "%s",
+                              "maxHops": 6,
+                              "direction": "%s",
+                              "algorithm": "%s"
+                            }
+                            """.formatted(from, to, direction, algorithm)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    @Test
+    void repeatedOneHopServesNodesFromCache() throws Exception {
+        String payload = """
+            {
+              "seeds": ["person:1"],
+              "limit": 10
+            }
+            """;
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/graph/one-hop")
+                            .contentType("application/json")
+                            .content(payload))
+                    .andExpect(status().isOk());
+        }
+
+        String response = mockMvc.perform(get("/api/v1/admin/cache/nodes"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode stats = objectMapper.readTree(response);
+        assertThat(stats.get("hits").asLong()).isGreaterThanOrEqualTo(2);
+        assertThat(stats.get("size").asLong()).isEqualTo(2);
+    }
 }